@@ -0,0 +1,287 @@
+package com.example.task.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Нагрузка с постоянной частотой запросов на запущенное приложение и занятость пула соединений под ней.
+ * Запросы отправляются по расписанию, не дожидаясь ответов на предыдущие (открытая модель, как
+ * constant-arrival-rate в k6), поэтому медленные ответы не снижают частоту, а копятся в очереди за соединением.
+ * Доля --slow клиентов читает ответ со скоростью --read-rate байт в секунду через маленький буфер сокета,
+ * как клиенты на медленной сети.
+ * <p>
+ * Во время измерения раз в 100 мс читаются hikaricp.connections.active и hikaricp.connections.pending,
+ * в конце - прирост hikaricp.connections.usage (время удержания соединения) за измерение.
+ * Пользователь --user регистрируется при первом запуске; --seed создает задачи, чтобы ответ был заметного объема.
+ * <p>
+ * Не требует Docker, но требует запущенное приложение:
+ * mvn -Pbench test-compile exec:exec -Dbench.main=com.example.task.benchmark.ConnectionPoolLoad
+ * -Dbench.args="--url http://localhost:8080 --rps 50 --duration 30 --slow 0.2"
+ */
+public class ConnectionPoolLoad {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final Map<String, String> options;
+
+    private final URI base;
+
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    private String token;
+
+    private ConnectionPoolLoad(Map<String, String> options) {
+        this.options = options;
+        this.base = URI.create(option("url", "http://localhost:8080"));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Ожидался параметр --name, получено " + args[i]);
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        new ConnectionPoolLoad(options).run();
+    }
+
+    private void run() throws Exception {
+        String path = option("path", "/tasks");
+        int rps = Integer.parseInt(option("rps", "50"));
+        int warmup = Integer.parseInt(option("warmup", "5"));
+        int duration = Integer.parseInt(option("duration", "30"));
+        double slow = Double.parseDouble(option("slow", "0"));
+        int readRate = Integer.parseInt(option("read-rate", "65536"));
+
+        login(option("user", "load"), option("password", "secret123"));
+        seed(Integer.parseInt(option("seed", "0")));
+
+        System.out.printf("%s, %d запросов/с, медленных клиентов %.0f%% (%d байт/с)%n",
+                path, rps, slow * 100, readRate);
+        load(path, rps, warmup, slow, readRate, new Stats());
+
+        Stats stats = new Stats();
+        double usageCount = metric("hikaricp.connections.usage", "COUNT");
+        double usageTime = metric("hikaricp.connections.usage", "TOTAL_TIME");
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(() -> stats.sample(
+                metric("hikaricp.connections.active", "VALUE"),
+                metric("hikaricp.connections.pending", "VALUE")), 0, 100, TimeUnit.MILLISECONDS);
+        load(path, rps, duration, slow, readRate, stats);
+        sampler.shutdown();
+        sampler.awaitTermination(1, TimeUnit.SECONDS);
+
+        double holds = metric("hikaricp.connections.usage", "COUNT") - usageCount;
+        double holdTime = metric("hikaricp.connections.usage", "TOTAL_TIME") - usageTime;
+        System.out.printf("запросов: %d, ответов 2xx: %d, ошибок: %d%n",
+                stats.latencies.size() + stats.errors.get(), stats.ok.get(), stats.errors.get());
+        System.out.printf("время ответа, мс: p50 %.1f, p95 %.1f, p99 %.1f%n",
+                stats.latency(0.5), stats.latency(0.95), stats.latency(0.99));
+        System.out.printf("hikaricp.connections.active: среднее %.2f, максимум %.0f%n",
+                stats.meanActive(), stats.maxActive());
+        System.out.printf("hikaricp.connections.pending: максимум %.0f%n", stats.maxPending());
+        System.out.printf("hikaricp.connections.usage: %.0f выдач, среднее %.1f мс%n",
+                holds, holds == 0 ? 0 : holdTime * 1000 / holds);
+        System.exit(0);
+    }
+
+    /**
+     * Отправляет запросы с частотой rps в течение seconds секунд и ждет ответы на все отправленные.
+     */
+    private void load(String path, int rps, int seconds, double slow, int readRate, Stats stats)
+            throws InterruptedException {
+        ExecutorService requests = Executors.newCachedThreadPool();
+        ScheduledExecutorService ticks = Executors.newSingleThreadScheduledExecutor();
+        ticks.scheduleAtFixedRate(() -> requests.execute(() -> {
+            boolean slowClient = ThreadLocalRandom.current().nextDouble() < slow;
+            long start = System.nanoTime();
+            try {
+                int status = get(path, slowClient ? readRate : 0);
+                stats.latencies.add(System.nanoTime() - start);
+                if (status / 100 == 2) {
+                    stats.ok.incrementAndGet();
+                }
+            } catch (IOException e) {
+                stats.errors.incrementAndGet();
+            }
+        }), 0, TimeUnit.SECONDS.toNanos(1) / rps, TimeUnit.NANOSECONDS);
+        Thread.sleep(TimeUnit.SECONDS.toMillis(seconds));
+        ticks.shutdownNow();
+        requests.shutdown();
+        requests.awaitTermination(2, TimeUnit.MINUTES);
+    }
+
+    /**
+     * GET через отдельное соединение. При readRate > 0 буфер приема сокета уменьшается до 4 КБ, а ответ
+     * читается не быстрее readRate байт в секунду, поэтому сервер не может сразу отдать ответ целиком.
+     *
+     * @return HTTP-статус ответа
+     */
+    private int get(String path, int readRate) throws IOException {
+        try (Socket socket = new Socket()) {
+            if (readRate > 0) {
+                socket.setReceiveBufferSize(4096);
+            }
+            socket.connect(new InetSocketAddress(base.getHost(), base.getPort()));
+            OutputStream out = socket.getOutputStream();
+            out.write(("GET " + path + " HTTP/1.1\r\nHost: " + base.getHost() + "\r\nAuthorization: Bearer " + token
+                    + "\r\nConnection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+
+            InputStream in = socket.getInputStream();
+            byte[] buffer = new byte[readRate > 0 ? 1024 : 65536];
+            String statusLine = null;
+            long start = System.nanoTime();
+            long total = 0;
+            for (int read; (read = in.read(buffer)) > 0; ) {
+                if (statusLine == null) {
+                    statusLine = new String(buffer, 0, Math.min(read, 12), StandardCharsets.US_ASCII);
+                }
+                total += read;
+                if (readRate > 0) {
+                    long ahead = total * 1000 / readRate - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                    if (ahead > 0) {
+                        sleep(ahead);
+                    }
+                }
+            }
+            if (statusLine == null || statusLine.length() < 12) {
+                throw new IOException("Пустой ответ");
+            }
+            return Integer.parseInt(statusLine.substring(9, 12));
+        }
+    }
+
+    private void login(String username, String password) throws IOException, InterruptedException {
+        String credentials = JSON.writeValueAsString(Map.of("username", username, "password", password));
+        send(HttpRequest.newBuilder(base.resolve("/registration")).POST(HttpRequest.BodyPublishers.ofString(credentials)));
+        HttpResponse<String> response = send(HttpRequest.newBuilder(base.resolve("/auth"))
+                .POST(HttpRequest.BodyPublishers.ofString(credentials)));
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Не удалось получить токен: " + response.statusCode() + " " + response.body());
+        }
+        token = JSON.readTree(response.body()).get("token").asText();
+    }
+
+    /**
+     * Создает count задач пакетами по 1000 через POST /tasks/batch.
+     */
+    private void seed(int count) throws IOException, InterruptedException {
+        String description = "description ".repeat(20);
+        for (int created = 0; created < count; ) {
+            List<Map<String, String>> batch = new ArrayList<>();
+            for (int i = 0; i < Math.min(1000, count - created); i++) {
+                batch.add(Map.of("title", "load " + (created + i), "description", description,
+                        "status", "PENDING", "priority", "MEDIUM"));
+            }
+            HttpResponse<String> response = send(HttpRequest.newBuilder(base.resolve("/tasks/batch"))
+                    .header("Authorization", "Bearer " + token)
+                    .POST(HttpRequest.BodyPublishers.ofString(JSON.writeValueAsString(batch))));
+            if (response.statusCode() != 201) {
+                throw new IllegalStateException("Не удалось создать задачи: " + response.statusCode());
+            }
+            created += batch.size();
+        }
+    }
+
+    /**
+     * Значение статистики метрики из /actuator/metrics, просуммированное по всем пулам.
+     */
+    private double metric(String name, String statistic) {
+        try {
+            HttpResponse<String> response = send(HttpRequest.newBuilder(base.resolve("/actuator/metrics/" + name))
+                    .header("Authorization", "Bearer " + token).GET());
+            if (response.statusCode() != 200) {
+                return Double.NaN;
+            }
+            for (JsonNode measurement : JSON.readTree(response.body()).get("measurements")) {
+                if (statistic.equals(measurement.get("statistic").asText())) {
+                    return measurement.get("value").asDouble();
+                }
+            }
+            return Double.NaN;
+        } catch (IOException | InterruptedException e) {
+            return Double.NaN;
+        }
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return client.send(request.header("Content-Type", "application/json").build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private String option(String name, String defaultValue) {
+        return options.getOrDefault(name, defaultValue);
+    }
+
+    private static void sleep(long millis) throws IOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Результаты запросов и выборки метрик пула за одно измерение.
+     */
+    private static class Stats {
+
+        private final Queue<Long> latencies = new ConcurrentLinkedQueue<>();
+
+        private final AtomicInteger ok = new AtomicInteger();
+
+        private final AtomicInteger errors = new AtomicInteger();
+
+        private final List<double[]> samples = new ArrayList<>();
+
+        private synchronized void sample(double active, double pending) {
+            samples.add(new double[]{active, pending});
+        }
+
+        private synchronized double meanActive() {
+            return samples.stream().mapToDouble(sample -> sample[0]).average().orElse(0);
+        }
+
+        private synchronized double maxActive() {
+            return samples.stream().mapToDouble(sample -> sample[0]).max().orElse(0);
+        }
+
+        private synchronized double maxPending() {
+            return samples.stream().mapToDouble(sample -> sample[1]).max().orElse(0);
+        }
+
+        private double latency(double phi) {
+            long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+            if (sorted.length == 0) {
+                return 0;
+            }
+            return sorted[Math.min(sorted.length - 1, (int) (phi * sorted.length))] / 1_000_000.0;
+        }
+    }
+}
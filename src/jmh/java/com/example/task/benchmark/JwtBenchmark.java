@@ -0,0 +1,92 @@
+package com.example.task.benchmark;
+
+import com.example.task.config.JwtRequestFilter;
+import com.example.task.model.User;
+import com.example.task.security.CredentialVersionRegistry;
+import com.example.task.security.CustomUserDetails;
+import com.example.task.security.JwtClaimsCache;
+import com.example.task.security.JwtCodec;
+import com.example.task.util.JwtTokenUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Горячий путь аутентификации: выпуск токена и полный проход {@link JwtRequestFilter}
+ * с заглушкой {@link UserDetailsService} вместо базы.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    @Param({"true", "false"})
+    private boolean statelessPrincipal;
+
+    private JwtTokenUtils jwtTokenUtils;
+
+    private JwtRequestFilter jwtRequestFilter;
+
+    private CustomUserDetails userDetails;
+
+    private MockHttpServletRequest request;
+
+    private MockHttpServletResponse response;
+
+    private final FilterChain chain = (request, response) -> {
+    };
+
+    @Setup
+    public void setUp() {
+        User user = User.builder().id(1L).username("user").password("hash").credentialVersion(0).build();
+        userDetails = new CustomUserDetails(user);
+        UserDetailsService userDetailsService = username -> userDetails;
+
+        JwtCodec jwtCodec = new JwtCodec("s3cr3tk3y", "k1", Map.of());
+        jwtTokenUtils = new JwtTokenUtils(jwtCodec, 3_600_000L);
+        jwtRequestFilter = new JwtRequestFilter(userDetailsService,
+                new JwtClaimsCache(10_000, new SimpleMeterRegistry()),
+                new CredentialVersionRegistry(10_000, Duration.ofMinutes(5)),
+                jwtCodec);
+        ReflectionTestUtils.setField(jwtRequestFilter, "statelessPrincipal", statelessPrincipal);
+
+        request = new MockHttpServletRequest("GET", "/tasks/1");
+        request.addHeader("Authorization", "Bearer " + jwtTokenUtils.generateToken(userDetails));
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtTokenUtils.generateToken(userDetails);
+    }
+
+    @Benchmark
+    public Authentication doFilterInternal() throws Exception {
+        SecurityContextHolder.clearContext();
+        jwtRequestFilter.doFilter(request, response, chain);
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.task.benchmark;
+
+import com.example.task.model.Task;
+import com.example.task.model.User;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Вставка задач пачками по {@link #ROWS} в одной транзакции, в задачах в секунду.
+ * identity - прежнее отображение с GenerationType.IDENTITY (Hibernate отправляет каждый INSERT отдельно,
+ * чтобы получить id), sequence - текущее отображение {@link Task} с последовательностью, выдающей блоки по 50,
+ * и пакетной вставкой с теми же настройками Hibernate и драйвера, что и в application.properties.
+ * <p>
+ * Поднимает PostgreSQL через Testcontainers, поэтому требует Docker.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskInsertBenchmark {
+
+    private static final int ROWS = 100;
+
+    @Param({"identity", "sequence"})
+    private String ids;
+
+    private PostgreSQLContainer<?> postgres;
+
+    private HikariDataSource dataSource;
+
+    private LocalContainerEntityManagerFactoryBean entityManagerFactoryBean;
+
+    private EntityManager entityManager;
+
+    private TransactionTemplate transaction;
+
+    @Setup
+    public void setUp() {
+        postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+        postgres.start();
+
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(postgres.getJdbcUrl());
+        dataSource.setUsername(postgres.getUsername());
+        dataSource.setPassword(postgres.getPassword());
+        dataSource.addDataSourceProperty("reWriteBatchedInserts", "true");
+        Flyway.configure().dataSource(dataSource).load().migrate();
+        new JdbcTemplate(dataSource).execute("INSERT INTO users (username, password) VALUES ('author', 'hash')");
+
+        entityManagerFactoryBean = new LocalContainerEntityManagerFactoryBean();
+        entityManagerFactoryBean.setDataSource(dataSource);
+        entityManagerFactoryBean.setPackagesToScan("com.example.task.model");
+        entityManagerFactoryBean.setPersistenceUnitPostProcessors(
+                unit -> unit.addManagedClassName(IdentityTask.class.getName()));
+        entityManagerFactoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        entityManagerFactoryBean.setJpaPropertyMap(Map.of(
+                "hibernate.jdbc.batch_size", "50",
+                "hibernate.order_inserts", "true",
+                "hibernate.order_updates", "true"));
+        entityManagerFactoryBean.afterPropertiesSet();
+        EntityManagerFactory entityManagerFactory = entityManagerFactoryBean.getObject();
+
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+        transaction = new TransactionTemplate(new JpaTransactionManager(entityManagerFactory));
+    }
+
+    @TearDown
+    public void tearDown() {
+        entityManagerFactoryBean.destroy();
+        dataSource.close();
+        postgres.stop();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void insert() {
+        boolean identity = ids.equals("identity");
+        transaction.executeWithoutResult(status -> {
+            User author = entityManager.getReference(User.class, 1L);
+            for (int i = 0; i < ROWS; i++) {
+                entityManager.persist(identity ? new IdentityTask("task " + i, author.getId()) : Task.builder()
+                        .title("task " + i)
+                        .description("description")
+                        .status(Task.Status.PENDING)
+                        .priority(Task.Priority.MEDIUM)
+                        .author(author)
+                        .build());
+            }
+        });
+    }
+
+    /**
+     * Задача в прежнем отображении: id выдает колонка при вставке.
+     */
+    @Entity
+    @Table(name = "tasks")
+    public static class IdentityTask {
+
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        private Long id;
+
+        private String title;
+
+        private String description = "description";
+
+        @Enumerated(EnumType.STRING)
+        private Task.Status status = Task.Status.PENDING;
+
+        @Enumerated(EnumType.STRING)
+        private Task.Priority priority = Task.Priority.MEDIUM;
+
+        @Column(name = "author_id")
+        private Long authorId;
+
+        @Column(name = "created_at")
+        private LocalDateTime createdAt = LocalDateTime.now();
+
+        protected IdentityTask() {
+        }
+
+        IdentityTask(String title, Long authorId) {
+            this.title = title;
+            this.authorId = authorId;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.task.benchmark;
+
+import com.example.task.model.Task;
+import com.example.task.model.pojo.TaskFilter;
+import com.example.task.model.pojo.TaskView;
+import com.example.task.repository.TaskFilterRepositoryImpl;
+import com.example.task.repository.TaskRepository;
+import com.example.task.util.pagination.TaskSort;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Чтение страницы задач и сериализация в JSON: сущности {@link Task} против проекции {@link TaskView}.
+ * Результат нормирован на строку (@OperationsPerInvocation), поэтому throughput - строк в секунду,
+ * а gc.alloc.rate.norm из -prof gc - байт на строку.
+ * <p>
+ * Поднимает PostgreSQL через Testcontainers, поэтому требует Docker.
+ * Сериализация выполняется внутри транзакции: сущностям она нужна для ленивых связей, как было до отключения
+ * open-in-view; приложение сериализует только проекции после завершения транзакции.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskReadBenchmark {
+
+    private static final int ROWS = 100;
+
+    private static final Pageable PAGE = PageRequest.of(0, ROWS, TaskSort.KEYSET);
+
+    private PostgreSQLContainer<?> postgres;
+
+    private LocalContainerEntityManagerFactoryBean entityManagerFactoryBean;
+
+    private TaskRepository taskRepository;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Setup
+    public void setUp() {
+        postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+        postgres.start();
+
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        Flyway.configure().dataSource(dataSource).load().migrate();
+        seed(new JdbcTemplate(dataSource));
+
+        entityManagerFactoryBean = new LocalContainerEntityManagerFactoryBean();
+        entityManagerFactoryBean.setDataSource(dataSource);
+        entityManagerFactoryBean.setPackagesToScan("com.example.task.model");
+        entityManagerFactoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        entityManagerFactoryBean.afterPropertiesSet();
+        EntityManagerFactory entityManagerFactory = entityManagerFactoryBean.getObject();
+
+        EntityManager entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+        taskRepository = new JpaRepositoryFactory(entityManager).getRepository(TaskRepository.class,
+                RepositoryFragments.just(new TaskFilterRepositoryImpl(entityManager)));
+
+        readOnlyTransaction = new TransactionTemplate(new JpaTransactionManager(entityManagerFactory));
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    @TearDown
+    public void tearDown() {
+        entityManagerFactoryBean.destroy();
+        postgres.stop();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public byte[] entities() {
+        return readOnlyTransaction.execute(status -> {
+            List<Task> tasks = taskRepository.findAll(PAGE).getContent();
+            return serialize(tasks);
+        });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public byte[] views() {
+        return readOnlyTransaction.execute(status -> {
+            List<TaskView> tasks = taskRepository.findSliceByFilter(TaskFilter.builder().build(), PAGE).getContent();
+            return serialize(tasks);
+        });
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void seed(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.execute("INSERT INTO users (username, password) "
+                + "SELECT 'user' || i, 'hash' FROM generate_series(1, 200) i");
+        jdbcTemplate.execute("INSERT INTO tasks (title, description, status, priority, author_id, assignee_id, created_at) "
+                + "SELECT 'task ' || i, repeat('description ', 10), "
+                + "(ARRAY['PENDING', 'IN_PROGRESS', 'COMPLETED'])[1 + i % 3], "
+                + "(ARRAY['HIGH', 'MEDIUM', 'LOW'])[1 + (i / 3) % 3], "
+                + "1 + i % 200, 1 + (i * 7) % 200, "
+                + "TIMESTAMP '2024-01-01' + i * INTERVAL '1 minute' "
+                + "FROM generate_series(1, 10000) i");
+        jdbcTemplate.execute("INSERT INTO comments (task_id, author_id, content) "
+                + "SELECT 1 + i % 10000, 1 + i % 200, 'comment ' || i FROM generate_series(1, 30000) i");
+        jdbcTemplate.execute("ANALYZE");
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.task.benchmark;
+
+import com.example.task.cache.TaskCache;
+import com.example.task.cache.UserCache;
+import com.example.task.model.pojo.TaskStatusChange;
+import com.example.task.repository.CommentRepository;
+import com.example.task.repository.TaskCounterDeltaRepositoryImpl;
+import com.example.task.repository.TaskCounterRepository;
+import com.example.task.repository.TaskFilterRepositoryImpl;
+import com.example.task.repository.TaskRepository;
+import com.example.task.repository.UserRepository;
+import com.example.task.service.TaskCounterService;
+import com.example.task.service.TaskService;
+import com.example.task.service.UserService;
+import com.example.task.util.validator.TaskStatusTransitions;
+import com.example.task.util.validator.TaskValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Перевод {@link #TASKS} задач в IN_PROGRESS, в задачах в секунду: perTask - по одному вызову
+ * {@link TaskService#changeStatus} в своей транзакции на задачу, как при PATCH /tasks/{id}/status,
+ * bulk - один вызов {@link TaskService#changeStatuses}, как при PATCH /tasks/status.
+ * Перед каждым вызовом задачи возвращаются в PENDING, а таблица очищается от старых версий строк,
+ * чтобы вызовы не замедлялись от итерации к итерации.
+ * <p>
+ * Поднимает PostgreSQL через Testcontainers, поэтому требует Docker.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskStatusBenchmark {
+
+    private static final int TASKS = 10_000;
+
+    private PostgreSQLContainer<?> postgres;
+
+    private LocalContainerEntityManagerFactoryBean entityManagerFactoryBean;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TaskService taskService;
+
+    private TransactionTemplate transaction;
+
+    private List<Long> ids;
+
+    @Setup
+    public void setUp() {
+        postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+        postgres.start();
+
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        Flyway.configure().dataSource(dataSource).load().migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("INSERT INTO users (username, password) "
+                + "SELECT 'user' || i, 'hash' FROM generate_series(1, 100) i");
+        jdbcTemplate.execute("INSERT INTO tasks (title, description, status, priority, author_id, assignee_id, created_at) "
+                + "SELECT 'task ' || i, 'description', 'PENDING', (ARRAY['HIGH', 'MEDIUM', 'LOW'])[1 + i % 3], "
+                + "u.ids[1], u.ids[1 + i % 100], now() "
+                + "FROM generate_series(1, " + TASKS + ") i, (SELECT array_agg(id ORDER BY id) ids FROM users) u");
+        jdbcTemplate.execute("ANALYZE");
+        ids = jdbcTemplate.queryForList("SELECT id FROM tasks ORDER BY id", Long.class);
+
+        entityManagerFactoryBean = new LocalContainerEntityManagerFactoryBean();
+        entityManagerFactoryBean.setDataSource(dataSource);
+        entityManagerFactoryBean.setPackagesToScan("com.example.task.model");
+        entityManagerFactoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        entityManagerFactoryBean.setJpaPropertyMap(Map.of("hibernate.jdbc.batch_size", "50"));
+        entityManagerFactoryBean.afterPropertiesSet();
+        EntityManagerFactory entityManagerFactory = entityManagerFactoryBean.getObject();
+
+        EntityManager entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+        JpaRepositoryFactory repositoryFactory = new JpaRepositoryFactory(entityManager);
+        TaskRepository taskRepository = repositoryFactory.getRepository(TaskRepository.class,
+                RepositoryFragments.just(new TaskFilterRepositoryImpl(entityManager)));
+        TaskCounterRepository taskCounterRepository = repositoryFactory.getRepository(TaskCounterRepository.class,
+                RepositoryFragments.just(new TaskCounterDeltaRepositoryImpl(entityManager)));
+        UserService userService = new UserService(repositoryFactory.getRepository(UserRepository.class),
+                new UserCache(1000, Duration.ofMinutes(10), new SimpleMeterRegistry()));
+        TaskValidator taskValidator = new TaskValidator();
+        ReflectionTestUtils.setField(taskValidator, "maxStatusBatchSize", TASKS);
+        taskService = new TaskService(taskRepository, repositoryFactory.getRepository(CommentRepository.class),
+                userService, taskValidator,
+                new TaskCache(TASKS, Duration.ofSeconds(30), new SimpleMeterRegistry()),
+                new TaskCounterService(taskCounterRepository, userService), new TaskStatusTransitions(""),
+                new SimpleMeterRegistry());
+
+        transaction = new TransactionTemplate(new JpaTransactionManager(entityManagerFactory));
+    }
+
+    @Setup(Level.Invocation)
+    public void resetStatuses() {
+        jdbcTemplate.update("UPDATE tasks SET status = 'PENDING'");
+        jdbcTemplate.execute("VACUUM tasks");
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("user1", null));
+    }
+
+    @TearDown
+    public void tearDown() {
+        entityManagerFactoryBean.destroy();
+        postgres.stop();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TASKS)
+    public void perTask() {
+        Map<String, Object> details = Map.of("status", "IN_PROGRESS");
+        for (Long id : ids) {
+            transaction.executeWithoutResult(status -> taskService.changeStatus(id, details));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TASKS)
+    public void bulk() {
+        transaction.executeWithoutResult(status -> taskService.changeStatuses(new TaskStatusChange(ids, "IN_PROGRESS")));
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.task.cache;
+
+import com.example.task.model.pojo.TaskView;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Ограниченный по размеру кэш представлений задач по идентификатору.
+ * Изменения на этом узле сразу удаляют задачу из кэша; изменения, сделанные другими узлами,
+ * становятся видны не позже чем через cache.tasks.max-staleness.
+ */
+@Component
+public class TaskCache {
+
+    private final Cache<Long, TaskView> byId;
+
+    public TaskCache(@Value("${cache.tasks.max-size:10000}") long maxSize,
+                     @Value("${cache.tasks.max-staleness:30s}") Duration maxStaleness,
+                     MeterRegistry meterRegistry) {
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(maxStaleness)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "tasks.byId");
+    }
+
+    /**
+     * Возвращает представление задачи по идентификатору, загружая его при промахе.
+     *
+     * @param id     идентификатор задачи
+     * @param loader функция загрузки задачи из базы (может вернуть null)
+     * @return представление задачи, если найдена
+     */
+    public Optional<TaskView> findById(Long id, Function<Long, TaskView> loader) {
+        return Optional.ofNullable(byId.get(id, loader));
+    }
+
+    /**
+     * Возвращает представление задачи, только если оно уже есть в кэше.
+     *
+     * @param id идентификатор задачи
+     * @return представление задачи из кэша
+     */
+    public Optional<TaskView> getIfPresent(Long id) {
+        return Optional.ofNullable(byId.getIfPresent(id));
+    }
+
+    /**
+     * Удаляет задачу из кэша после её изменения.
+     * Внутри транзакции запись удаляется еще раз после её завершения: иначе параллельное чтение
+     * успело бы положить в кэш состояние задачи до коммита.
+     *
+     * @param id идентификатор измененной задачи
+     */
+    public void invalidate(Long id) {
+        if (id == null) {
+            return;
+        }
+        byId.invalidate(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    byId.invalidate(id);
+                }
+            });
+        }
+    }
+
+    /**
+     * Удаляет из кэша несколько задач после их изменения, так же как {@link #invalidate(Long)}.
+     *
+     * @param ids идентификаторы измененных задач
+     */
+    public void invalidateAll(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        byId.invalidateAll(ids);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    byId.invalidateAll(ids);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.task.cache;
+
+import com.example.task.model.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Ограниченный по размеру и времени жизни кэш пользователей, индексированный по идентификатору и по имени.
+ * Отсутствующие пользователи не кэшируются, поэтому только что зарегистрированный пользователь
+ * сразу становится виден.
+ * <p>
+ * Сброс записи действует только на этом узле, поэтому пароль и версия учетных данных из кэша
+ * для аутентификации не используются: их читает {@link com.example.task.service.UserService#findCredentials}.
+ */
+@Component
+public class UserCache {
+
+    private final Cache<Long, User> byId;
+
+    private final Cache<String, User> byUsername;
+
+    public UserCache(@Value("${cache.users.max-size:10000}") long maxSize,
+                     @Value("${cache.users.ttl:10m}") Duration ttl,
+                     MeterRegistry meterRegistry) {
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.byUsername = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "users.byId");
+        CaffeineCacheMetrics.monitor(meterRegistry, byUsername, "users.byUsername");
+    }
+
+    /**
+     * Возвращает пользователя по идентификатору, загружая его при промахе.
+     *
+     * @param id     идентификатор пользователя
+     * @param loader функция загрузки пользователя из базы (может вернуть null)
+     * @return пользователь, если найден
+     */
+    public Optional<User> findById(Long id, Function<Long, User> loader) {
+        return Optional.ofNullable(byId.get(id, key -> {
+            User user = loader.apply(key);
+            if (user != null && user.getUsername() != null) {
+                byUsername.put(user.getUsername(), user);
+            }
+            return user;
+        }));
+    }
+
+    /**
+     * Возвращает пользователя по имени, загружая его при промахе.
+     *
+     * @param username имя пользователя
+     * @param loader   функция загрузки пользователя из базы (может вернуть null)
+     * @return пользователь, если найден
+     */
+    public Optional<User> findByUsername(String username, Function<String, User> loader) {
+        return Optional.ofNullable(byUsername.get(username, key -> {
+            User user = loader.apply(key);
+            if (user != null && user.getId() != null) {
+                byId.put(user.getId(), user);
+            }
+            return user;
+        }));
+    }
+
+    /**
+     * Возвращает пользователей по именам; отсутствующие в кэше загружаются одним вызовом загрузчика.
+     *
+     * @param usernames имена пользователей
+     * @param loader    функция загрузки пользователей с указанными именами (может вернуть не все имена)
+     * @return найденные пользователи по имени
+     */
+    public Map<String, User> findAllByUsername(Collection<String> usernames,
+                                               Function<Set<? extends String>, Map<String, User>> loader) {
+        return byUsername.getAll(usernames, missing -> {
+            Map<String, User> users = loader.apply(missing);
+            users.values().stream()
+                    .filter(user -> user.getId() != null)
+                    .forEach(user -> byId.put(user.getId(), user));
+            return users;
+        });
+    }
+
+    /**
+     * Заменяет записи о пользователе значением, только что прочитанным из базы.
+     *
+     * @param user пользователь, прочитанный из базы
+     */
+    public void put(User user) {
+        if (user.getId() != null) {
+            byId.put(user.getId(), user);
+        }
+        if (user.getUsername() != null) {
+            byUsername.put(user.getUsername(), user);
+        }
+    }
+
+    /**
+     * Удаляет пользователя из кэша после его изменения.
+     *
+     * @param user измененный пользователь
+     */
+    public void invalidate(User user) {
+        if (user.getId() != null) {
+            byId.invalidate(user.getId());
+        }
+        if (user.getUsername() != null) {
+            byUsername.invalidate(user.getUsername());
+        }
+    }
+}
@@ -1,7 +1,12 @@
 package com.example.task.config;
 
+import com.example.task.model.User;
+import com.example.task.security.CredentialVersionRegistry;
+import com.example.task.security.CustomUserDetails;
+import com.example.task.security.JwtClaimsCache;
+import com.example.task.security.JwtCodec;
+import com.example.task.util.JwtTokenUtils;
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -18,7 +23,6 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.Date;
-import java.util.function.Function;
 
 /**
  * Фильтр для обработки JWT токенов в каждом HTTP запросе.
@@ -27,20 +31,30 @@ import java.util.function.Function;
 @Component
 public class JwtRequestFilter extends OncePerRequestFilter {
 
-    @Value("${jwt.secret}")
-    private String secret;
+    @Value("${jwt.stateless-principal.enabled:false}")
+    private boolean statelessPrincipal;
 
     private final UserDetailsService userDetailsService;
 
-    public JwtRequestFilter(UserDetailsService userDetailsService) {
+    private final JwtClaimsCache jwtClaimsCache;
+
+    private final CredentialVersionRegistry credentialVersionRegistry;
+
+    private final JwtCodec jwtCodec;
+
+    public JwtRequestFilter(UserDetailsService userDetailsService, JwtClaimsCache jwtClaimsCache,
+                            CredentialVersionRegistry credentialVersionRegistry, JwtCodec jwtCodec) {
         this.userDetailsService = userDetailsService;
+        this.jwtClaimsCache = jwtClaimsCache;
+        this.credentialVersionRegistry = credentialVersionRegistry;
+        this.jwtCodec = jwtCodec;
     }
 
     /**
      * Основной метод фильтрации, который обрабатывает каждый входящий запрос.
      * Выполняет следующие шаги:
      * 1. Проверяет наличие заголовка Authorization.
-     * 2. Извлекает и валидирует JWT токен.
+     * 2. Извлекает и валидирует JWT токен (подпись проверяется один раз, результат берется из кэша).
      * 3. Устанавливает аутентификацию в SecurityContext, если токен валиден.
      *
      * @param request  текущий HTTP запрос
@@ -55,17 +69,20 @@ public class JwtRequestFilter extends OncePerRequestFilter {
 
         final String authorizationHeader = request.getHeader("Authorization");
         String username = null;
-        String jwt = null;
+        Claims claims = null;
 
         if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7);
-            username = extractUsername(jwt);
+            String jwt = authorizationHeader.substring(7);
+            claims = jwtClaimsCache.get(jwt, jwtCodec::decode);
+            username = claims.getSubject();
         }
 
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+            UserDetails userDetails = statelessPrincipal
+                    ? resolvePrincipal(claims)
+                    : this.userDetailsService.loadUserByUsername(username);
 
-            if (validateToken(jwt, userDetails)) {
+            if (userDetails != null && validateToken(claims, userDetails)) {
                 UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken =
                         new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                 usernamePasswordAuthenticationToken
@@ -77,67 +94,67 @@ public class JwtRequestFilter extends OncePerRequestFilter {
     }
 
     /**
-     * Извлекает имя пользователя из JWT токена.
+     * Строит principal из утверждений токена без обращения к базе.
+     * Пользователь загружается из базы, минуя кэш пользователей, только если версия учетных данных в токене
+     * не совпадает с известной версией (или версия еще неизвестна на этом узле): так токен, выпущенный
+     * после смены пароля на другом узле, принимается сразу.
+     * Токены без идентификатора пользователя и версии обрабатываются как раньше.
      *
-     * @param token JWT токен
-     * @return имя пользователя
+     * @param claims утверждения JWT токена
+     * @return детали пользователя или null, если токен выпущен для устаревших учетных данных
      */
-    private String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
-    }
+    private UserDetails resolvePrincipal(Claims claims) {
+        String username = claims.getSubject();
+        Long userId = claims.get(JwtTokenUtils.USER_ID_CLAIM, Long.class);
+        Integer credentialVersion = claims.get(JwtTokenUtils.CREDENTIAL_VERSION_CLAIM, Integer.class);
+        if (userId == null || credentialVersion == null) {
+            return userDetailsService.loadUserByUsername(username);
+        }
 
-    /**
-     * Извлекает определенное утверждение (claim) из JWT токена.
-     *
-     * @param token          JWT токен
-     * @param claimsResolver функция для разрешения утверждения
-     * @param <T>            тип утверждения
-     * @return извлеченное утверждение
-     */
-    private <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
-    }
+        if (credentialVersion.equals(credentialVersionRegistry.getKnownVersion(userId))) {
+            return new CustomUserDetails(User.builder()
+                    .id(userId)
+                    .username(username)
+                    .credentialVersion(credentialVersion)
+                    .build());
+        }
 
-    /**
-     * Извлекает все утверждения (claims) из JWT токена.
-     *
-     * @param token JWT токен
-     * @return все утверждения
-     */
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser().setSigningKey(secret).parseClaimsJws(token).getBody();
+        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+        if (!(userDetails instanceof CustomUserDetails customUserDetails)) {
+            return userDetails;
+        }
+        User user = customUserDetails.user();
+        credentialVersionRegistry.remember(user.getId(), user.getCredentialVersion());
+        if (!user.getId().equals(userId) || !credentialVersion.equals(user.getCredentialVersion())) {
+            return null;
+        }
+        return userDetails;
     }
 
     /**
-     * Проверяет валидность JWT токена.
+     * Проверяет валидность JWT токена по его уже проверенным утверждениям.
+     * Токен, выпущенный для другой версии учетных данных пользователя, не принимается.
      *
-     * @param token       JWT токен
+     * @param claims      утверждения JWT токена
      * @param userDetails детали пользователя
      * @return true, если токен валиден; false в противном случае
      */
-    private Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+    private Boolean validateToken(Claims claims, UserDetails userDetails) {
+        Integer credentialVersion = claims.get(JwtTokenUtils.CREDENTIAL_VERSION_CLAIM, Integer.class);
+        if (credentialVersion != null && userDetails instanceof CustomUserDetails customUserDetails
+                && !credentialVersion.equals(customUserDetails.user().getCredentialVersion())) {
+            return false;
+        }
+        return (claims.getSubject().equals(userDetails.getUsername()) && !isTokenExpired(claims));
     }
 
     /**
      * Проверяет, истек ли срок действия JWT токена.
      *
-     * @param token JWT токен
+     * @param claims утверждения JWT токена
      * @return true, если срок действия истек; false в противном случае
      */
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
-    /**
-     * Извлекает дату истечения срока действия JWT токена.
-     *
-     * @param token JWT токен
-     * @return дата истечения срока действия
-     */
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    private Boolean isTokenExpired(Claims claims) {
+        return claims.getExpiration().before(new Date());
     }
 }
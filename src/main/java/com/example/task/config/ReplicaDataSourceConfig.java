@@ -0,0 +1,102 @@
+package com.example.task.config;
+
+import com.example.task.datasource.RecentWriters;
+import com.example.task.datasource.ReplicaPool;
+import com.example.task.datasource.ReplicaRoutingDataSource;
+import com.example.task.datasource.WriteTrackingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Чтение с реплик PostgreSQL. Включается свойством datasource.replicas.urls; без него приложение
+ * работает с одной базой spring.datasource, как раньше.
+ * <p>
+ * Приложение получает {@link LazyConnectionDataSourceProxy}: физическое соединение берется при первом запросе,
+ * когда флаг read-only транзакции уже известен. Транзакции с readOnly = true получают соединение
+ * из {@link ReplicaRoutingDataSource}, остальные - с основной базы.
+ */
+@Configuration
+@ConditionalOnProperty("datasource.replicas.urls")
+public class ReplicaDataSourceConfig {
+
+    private final List<String> urls;
+
+    private final ReplicaRoutingDataSource.Selection selection;
+
+    private final Duration maxLag;
+
+    private final Duration stickyWindow;
+
+    public ReplicaDataSourceConfig(@Value("${datasource.replicas.urls}") List<String> urls,
+                                   @Value("${datasource.replicas.selection:round-robin}")
+                                   ReplicaRoutingDataSource.Selection selection,
+                                   @Value("${datasource.replicas.max-lag:5s}") Duration maxLag,
+                                   @Value("${datasource.replicas.sticky-window:5s}") Duration stickyWindow) {
+        this.urls = urls;
+        this.selection = selection;
+        this.maxLag = maxLag;
+        this.stickyWindow = stickyWindow;
+    }
+
+    /**
+     * Пул основной базы с настройками spring.datasource и spring.datasource.hikari.
+     * Пул не является кандидатом для внедрения, поэтому Spring Boot не подключает к нему метрики hikaricp.*
+     * и они регистрируются здесь, как и для реплик.
+     */
+    @Bean(autowireCandidate = false)
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties, MeterRegistry meterRegistry) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setMetricRegistry(meterRegistry);
+        return dataSource;
+    }
+
+    @Bean
+    public RecentWriters recentWriters() {
+        return new RecentWriters(stickyWindow, 100_000);
+    }
+
+    /**
+     * Пулы реплик копируют настройки пула основной базы (размер, таймауты, учетные данные) и отличаются адресом
+     * и временем ожидания соединения: оно не больше max-lag, чтобы чтение с упавшей реплики быстро ушло
+     * на основную базу, а не ждало полный connection-timeout.
+     */
+    @Bean(autowireCandidate = false)
+    public ReplicaRoutingDataSource replicaDataSource(DataSourceProperties properties, MeterRegistry meterRegistry) {
+        HikariDataSource primary = primaryDataSource(properties, meterRegistry);
+        List<ReplicaPool> replicas = new ArrayList<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource replica = new HikariDataSource();
+            primary.copyStateTo(replica);
+            replica.setJdbcUrl(urls.get(i));
+            replica.setPoolName("replica-" + (i + 1));
+            replica.setReadOnly(true);
+            replica.setConnectionTimeout(Math.min(primary.getConnectionTimeout(), maxLag.toMillis()));
+            replica.setMetricRegistry(meterRegistry);
+            replicas.add(new ReplicaPool(replica.getPoolName(), replica));
+        }
+        return new ReplicaRoutingDataSource(primary, replicas, selection, maxLag, recentWriters(), meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties properties, MeterRegistry meterRegistry) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(
+                new WriteTrackingDataSource(primaryDataSource(properties, meterRegistry), recentWriters()));
+        dataSource.setReadOnlyDataSource(replicaDataSource(properties, meterRegistry));
+        return dataSource;
+    }
+}
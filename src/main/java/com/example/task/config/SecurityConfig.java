@@ -1,5 +1,10 @@
 package com.example.task.config;
 
+import com.example.task.security.BoundedPasswordEncoder;
+import com.example.task.security.PasswordHashingExecutor;
+import com.example.task.security.TargetCostBCryptPasswordEncoder;
+import jakarta.servlet.DispatcherType;
+import org.springframework.beans.factory.annotation.Value;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -10,8 +15,6 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configuration.WebSecurityCustomizer;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
@@ -40,6 +43,7 @@ public class SecurityConfig {
         http
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(authorize -> authorize
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/registration", "/auth").permitAll()
                         .anyRequest().authenticated()
                 )
@@ -65,12 +69,18 @@ public class SecurityConfig {
 
     /**
      * Настройка PasswordEncoder.
+     * BCrypt выполняется в отдельном ограниченном пуле, а не в потоках обработки запросов.
+     * Стоимость BCrypt задается свойством password.bcrypt.strength; хеши с другой стоимостью
+     * пересчитываются после успешного входа.
      *
-     * @return экземпляр BCryptPasswordEncoder
+     * @param passwordHashingExecutor пул для хеширования паролей
+     * @param strength                целевая стоимость BCrypt
+     * @return BCryptPasswordEncoder, работающий через пул
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BoundedPasswordEncoder passwordEncoder(PasswordHashingExecutor passwordHashingExecutor,
+                                                  @Value("${password.bcrypt.strength:10}") int strength) {
+        return new BoundedPasswordEncoder(new TargetCostBCryptPasswordEncoder(strength), passwordHashingExecutor);
     }
 
     /**
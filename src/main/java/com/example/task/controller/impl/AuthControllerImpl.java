@@ -4,6 +4,7 @@ package com.example.task.controller.impl;
 import com.example.task.controller.intrf.AuthController;
 import com.example.task.model.pojo.AuthenticationRequest;
 import com.example.task.model.pojo.AuthenticationResponse;
+import com.example.task.model.pojo.PasswordChangeRequest;
 import com.example.task.service.AuthService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -35,4 +36,26 @@ public class AuthControllerImpl implements AuthController {
         String token = authService.authenticateAndGetToken(authenticationRequest.getUsername(), authenticationRequest.getPassword());
         return ResponseEntity.ok(new AuthenticationResponse(token));
     }
+
+    /**
+     * Меняет пароль текущего пользователя и отзывает его прежние токены.
+     *
+     * @param request текущий и новый пароль
+     * @return Ответ с новым JWT токеном
+     */
+    @Override
+    public ResponseEntity<AuthenticationResponse> changePassword(PasswordChangeRequest request) {
+        return ResponseEntity.ok(new AuthenticationResponse(
+                authService.changePassword(request.oldPassword(), request.newPassword())));
+    }
+
+    /**
+     * Отзывает все токены текущего пользователя.
+     *
+     * @return Ответ с новым JWT токеном
+     */
+    @Override
+    public ResponseEntity<AuthenticationResponse> revokeTokens() {
+        return ResponseEntity.ok(new AuthenticationResponse(authService.revokeTokens()));
+    }
 }
\ No newline at end of file
@@ -1,12 +1,13 @@
 package com.example.task.controller.impl;
 
 import com.example.task.controller.intrf.CommentController;
-import com.example.task.model.Comment;
+import com.example.task.model.pojo.CommentView;
 import com.example.task.service.CommentService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Map;
@@ -45,14 +46,21 @@ public class CommentControllerImpl implements CommentController {
      * Получает все комментарии по задаче.
      * Метод возвращает список всех комментариев, связанных с указанной задачей.
      *
-     * @param taskId идентификатор задачи, для которой необходимо получить комментарии
-     * @return ответ со списком комментариев
+     * Если список не менялся с ETag из If-None-Match, отвечает 304 без загрузки комментариев.
+     *
+     * @param taskId  идентификатор задачи, для которой необходимо получить комментарии
+     * @param request текущий запрос с условными заголовками
+     * @return ответ со списком комментариев и его ETag
      */
     @Override
     @GetMapping("/{taskId}/comments")
-    public ResponseEntity<List<Comment>> getCommentsByTask(@PathVariable Long taskId) {
-        List<Comment> comments = commentService.getCommentsByTask(taskId);
-        return ResponseEntity.ok(comments);
+    public ResponseEntity<List<CommentView>> getCommentsByTask(@PathVariable Long taskId, WebRequest request) {
+        String eTag = commentService.getCommentsETag(taskId);
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        List<CommentView> comments = commentService.getCommentsByTask(taskId);
+        return ResponseEntity.ok().eTag(eTag).body(comments);
     }
 
     /**
@@ -2,12 +2,27 @@ package com.example.task.controller.impl;
 
 import com.example.task.controller.intrf.TaskController;
 import com.example.task.model.Task;
+import com.example.task.model.pojo.TaskBatchResult;
+import com.example.task.model.pojo.TaskFilter;
+import com.example.task.model.pojo.TaskStats;
+import com.example.task.model.pojo.TaskStatusBatchResult;
+import com.example.task.model.pojo.TaskStatusChange;
+import com.example.task.model.pojo.TaskView;
+import com.example.task.service.TaskCounterService;
+import com.example.task.service.TaskExportService;
 import com.example.task.service.TaskService;
+import com.example.task.util.http.ETags;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -20,9 +35,16 @@ public class TaskControllerImpl implements TaskController {
 
     private final TaskService taskService;
 
+    private final TaskExportService taskExportService;
+
+    private final TaskCounterService taskCounterService;
+
     @Autowired
-    public TaskControllerImpl(TaskService taskService) {
+    public TaskControllerImpl(TaskService taskService, TaskExportService taskExportService,
+                              TaskCounterService taskCounterService) {
         this.taskService = taskService;
+        this.taskExportService = taskExportService;
+        this.taskCounterService = taskCounterService;
     }
 
     /**
@@ -38,33 +60,62 @@ public class TaskControllerImpl implements TaskController {
         return ResponseEntity.status(HttpStatus.CREATED).body("Задача добавлена успешно!");
     }
 
+    /**
+     * Создает пакет задач.
+     * Отвечает 201, если созданы все задачи, 207 - если только часть, и 400 - если не создано ни одной;
+     * в теле ответа результат по каждой задаче.
+     *
+     * @param items данные задач
+     * @param mode  режим обработки ошибок; по умолчанию tasks.batch.default-mode
+     * @return ответ с результатами по задачам пакета
+     */
+    @Override
+    @PostMapping("/batch")
+    public ResponseEntity<TaskBatchResult> createTasks(@RequestBody List<Map<String, Object>> items,
+                                                       @RequestParam(defaultValue = "${tasks.batch.default-mode:ALL_OR_NOTHING}")
+                                                       TaskBatchResult.Mode mode) {
+        TaskBatchResult result = taskService.createTasks(items, mode);
+        HttpStatus status = result.failed() == 0 ? HttpStatus.CREATED
+                : (result.created() == 0 ? HttpStatus.BAD_REQUEST : HttpStatus.MULTI_STATUS);
+        return ResponseEntity.status(status).body(result);
+    }
+
     /**
      * Частично обновляет задачу по ID.
      * Принимает ID задачи и новые данные для обновления.
      *
+     * Если передан If-Match, а задача изменилась после получения указанного в нем ETag, отвечает 412.
+     *
      * @param id          идентификатор задачи
      * @param taskDetails новые данные задачи
-     * @return ответ с сообщением об успешном обновлении задачи
+     * @param ifMatch     ETag задачи, на основе которой клиент сделал изменения (необязательно)
+     * @return ответ с сообщением об успешном обновлении задачи и новым ETag задачи
      */
     @Override
     @PatchMapping("/{id}")
-    public ResponseEntity<String> updateTask(@PathVariable Long id, @RequestBody Map<String, Object> taskDetails) {
-        taskService.updateTask(id, taskDetails);
-        return ResponseEntity.ok("Задача успешно обновлена!");
+    public ResponseEntity<String> updateTask(@PathVariable Long id, @RequestBody Map<String, Object> taskDetails,
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        String eTag = taskService.updateTask(id, taskDetails, ifMatch);
+        return ResponseEntity.ok().eTag(eTag).body("Задача успешно обновлена!");
     }
 
     /**
      * Получает задачу по ID.
      * Возвращает задачу с указанным ID.
+     * Если ETag из If-None-Match совпадает с текущим, отвечает 304 без загрузки задачи.
      *
-     * @param id идентификатор задачи
-     * @return ответ с задачей
+     * @param id      идентификатор задачи
+     * @param request текущий запрос с условными заголовками
+     * @return ответ с задачей и её ETag
      */
     @Override
     @GetMapping("/{id}")
-    public ResponseEntity<Task> getTaskById(@PathVariable Long id) {
-        Task task = taskService.getTaskById(id);
-        return ResponseEntity.ok(task);
+    public ResponseEntity<TaskView> getTaskById(@PathVariable Long id, WebRequest request) {
+        if (request.checkNotModified(taskService.getTaskETag(id))) {
+            return null;
+        }
+        TaskView task = taskService.getTaskView(id);
+        return ResponseEntity.ok().eTag(ETags.forTask(task)).body(task);
     }
 
     /**
@@ -76,11 +127,25 @@ public class TaskControllerImpl implements TaskController {
 
     @Override
     @GetMapping
-    public ResponseEntity<List<Task>> getAllTasks() {
-        List<Task> tasks = taskService.getAllTasks();
+    public ResponseEntity<List<TaskView>> getAllTasks() {
+        List<TaskView> tasks = taskService.getAllTasks();
         return ResponseEntity.ok(tasks);
     }
 
+    /**
+     * Выгружает все задачи потоком.
+     * Задачи читаются курсором и пишутся в ответ по мере чтения в формате NDJSON.
+     *
+     * @return ответ с потоком задач
+     */
+    @Override
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportTasks() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(taskExportService::exportTasks);
+    }
+
     /**
      * Удаляет задачу по ID.
      * Удаляет задачу с указанным ID.
@@ -110,15 +175,87 @@ public class TaskControllerImpl implements TaskController {
         return ResponseEntity.ok("Статус успешно изменен!");
     }
 
+    /**
+     * Изменяет статус нескольких задач.
+     * Задачи, которые не найдены, чужие или уже в нужном статусе, не прерывают изменение остальных.
+     *
+     * @param change идентификаторы задач и новый статус
+     * @return ответ с итогом по каждой задаче
+     */
+    @Override
+    @PatchMapping("/status")
+    public ResponseEntity<TaskStatusBatchResult> changeStatuses(@RequestBody TaskStatusChange change) {
+        return ResponseEntity.ok(taskService.changeStatuses(change));
+    }
+
+    /**
+     * Ищет задачи по произвольному набору условий.
+     * Возвращает задачи, отобранные по автору, исполнителю, статусу, приоритету и периоду создания.
+     * С параметром q выполняет полнотекстовый поиск по заголовку и описанию с теми же фильтрами.
+     *
+     * @param q           поисковый запрос; при наличии задачи упорядочены по релевантности (необязательно)
+     * @param authorId    идентификатор автора (необязательно)
+     * @param assigneeId  идентификатор исполнителя (необязательно)
+     * @param page        номер страницы (по умолчанию 0)
+     * @param size        размер страницы (по умолчанию 10)
+     * @param status      статус задачи для фильтрации (необязательно)
+     * @param priority    приоритет задачи для фильтрации (необязательно)
+     * @param createdFrom начало периода создания, включительно (необязательно)
+     * @param createdTo   конец периода создания, не включительно (необязательно)
+     * @param sort        сортировка вида "поле[,asc|desc]" (по умолчанию по дате создания); не передается вместе с cursor
+     * @param cursor      курсор следующей страницы; при наличии включает курсорную пагинацию в порядке (created_at, id)
+     *                    (пустой для первой страницы)
+     * @param count       подсчитывать ли общее количество задач при постраничном выводе (по умолчанию true)
+     * @return ответ со списком задач
+     */
+    @Override
+    @GetMapping("/search")
+    public ResponseEntity<?> searchTasks(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) Long authorId,
+            @RequestParam(required = false) Long assigneeId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) Task.Status status,
+            @RequestParam(required = false) Task.Priority priority,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "true") boolean count) {
+
+        TaskFilter filter = TaskFilter.builder()
+                .authorId(authorId)
+                .assigneeId(assigneeId)
+                .status(status)
+                .priority(priority)
+                .createdFrom(createdFrom)
+                .createdTo(createdTo)
+                .build();
+        if (q != null) {
+            if (sort != null) {
+                throw new IllegalArgumentException("Параметр sort не используется с поисковым запросом: задачи упорядочены по релевантности!");
+            }
+            return taskService.searchTasks(q, filter, cursor, size);
+        }
+        return listTasks(filter, page, size, sort, cursor, count);
+    }
+
     /**
      * Получает задачи по автору с пагинацией и фильтрацией.
-     * Возвращает список задач, созданных указанным автором, с возможностью пагинации и фильтрации по статусу и приоритету.
+     * Возвращает список задач, созданных указанным автором, с возможностью пагинации и фильтрации по статусу, приоритету и периоду создания.
      *
-     * @param authorId идентификатор автора
-     * @param page     номер страницы (по умолчанию 0)
-     * @param size     размер страницы (по умолчанию 10)
-     * @param status   статус задачи для фильтрации (необязательно)
-     * @param priority приоритет задачи для фильтрации (необязательно)
+     * @param authorId    идентификатор автора
+     * @param page        номер страницы (по умолчанию 0)
+     * @param size        размер страницы (по умолчанию 10)
+     * @param status      статус задачи для фильтрации (необязательно)
+     * @param priority    приоритет задачи для фильтрации (необязательно)
+     * @param createdFrom начало периода создания, включительно (необязательно)
+     * @param createdTo   конец периода создания, не включительно (необязательно)
+     * @param sort        сортировка вида "поле[,asc|desc]" (по умолчанию по дате создания); не передается вместе с cursor
+     * @param cursor      курсор следующей страницы; при наличии включает курсорную пагинацию в порядке (created_at, id)
+     *                    (пустой для первой страницы)
+     * @param count       подсчитывать ли общее количество задач при постраничном выводе (по умолчанию true)
      * @return ответ со списком задач
      */
     @Override
@@ -128,20 +265,39 @@ public class TaskControllerImpl implements TaskController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(required = false) Task.Status status,
-            @RequestParam(required = false) Task.Priority priority) {
+            @RequestParam(required = false) Task.Priority priority,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "true") boolean count) {
 
-        return taskService.getTasksByAuthor(authorId, status, priority, page, size);
+        TaskFilter filter = TaskFilter.builder()
+                .authorId(authorId)
+                .assigneeId(null)
+                .status(status)
+                .priority(priority)
+                .createdFrom(createdFrom)
+                .createdTo(createdTo)
+                .build();
+        return listTasks(filter, page, size, sort, cursor, count);
     }
 
     /**
      * Получает задачи по исполнителю с пагинацией и фильтрацией.
-     * Возвращает список задач, назначенных указанному исполнителю, с возможностью пагинации и фильтрации по статусу и приоритету.
+     * Возвращает список задач, назначенных указанному исполнителю, с возможностью пагинации и фильтрации по статусу, приоритету и периоду создания.
      *
-     * @param assigneeId идентификатор исполнителя
-     * @param page       номер страницы (по умолчанию 0)
-     * @param size       размер страницы (по умолчанию 10)
-     * @param status     статус задачи для фильтрации (необязательно)
-     * @param priority   приоритет задачи для фильтрации (необязательно)
+     * @param assigneeId  идентификатор исполнителя
+     * @param page        номер страницы (по умолчанию 0)
+     * @param size        размер страницы (по умолчанию 10)
+     * @param status      статус задачи для фильтрации (необязательно)
+     * @param priority    приоритет задачи для фильтрации (необязательно)
+     * @param createdFrom начало периода создания, включительно (необязательно)
+     * @param createdTo   конец периода создания, не включительно (необязательно)
+     * @param sort        сортировка вида "поле[,asc|desc]" (по умолчанию по дате создания); не передается вместе с cursor
+     * @param cursor      курсор следующей страницы; при наличии включает курсорную пагинацию в порядке (created_at, id)
+     *                    (пустой для первой страницы)
+     * @param count       подсчитывать ли общее количество задач при постраничном выводе (по умолчанию true)
      * @return ответ со списком задач
      */
     @Override
@@ -151,8 +307,57 @@ public class TaskControllerImpl implements TaskController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(required = false) Task.Status status,
-            @RequestParam(required = false) Task.Priority priority) {
+            @RequestParam(required = false) Task.Priority priority,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "true") boolean count) {
+
+        TaskFilter filter = TaskFilter.builder()
+                .authorId(null)
+                .assigneeId(assigneeId)
+                .status(status)
+                .priority(priority)
+                .createdFrom(createdFrom)
+                .createdTo(createdTo)
+                .build();
+        return listTasks(filter, page, size, sort, cursor, count);
+    }
+
+    /**
+     * Получает статистику задач автора.
+     * Возвращает количество задач автора по каждому сочетанию статуса и приоритета.
+     *
+     * @param authorId идентификатор автора
+     * @return ответ со статистикой задач
+     */
+    @Override
+    @GetMapping("/stats/author/{authorId}")
+    public ResponseEntity<TaskStats> getAuthorStats(@PathVariable Long authorId) {
+        return ResponseEntity.ok(taskCounterService.getAuthorStats(authorId));
+    }
+
+    /**
+     * Получает статистику задач исполнителя.
+     * Возвращает количество задач исполнителя по каждому сочетанию статуса и приоритета.
+     *
+     * @param assigneeId идентификатор исполнителя
+     * @return ответ со статистикой задач
+     */
+    @Override
+    @GetMapping("/stats/assignee/{assigneeId}")
+    public ResponseEntity<TaskStats> getAssigneeStats(@PathVariable Long assigneeId) {
+        return ResponseEntity.ok(taskCounterService.getAssigneeStats(assigneeId));
+    }
 
-        return taskService.getTasksByAssignee(assigneeId, status, priority, page, size);
+    private ResponseEntity<?> listTasks(TaskFilter filter, int page, int size, String sort, String cursor, boolean count) {
+        if (cursor != null) {
+            if (sort != null) {
+                throw new IllegalArgumentException("Параметр sort не используется с курсором: задачи выдаются в порядке (created_at, id)!");
+            }
+            return taskService.getTasksAfter(filter, cursor, size);
+        }
+        return taskService.getTasks(filter, page, size, sort, count);
     }
-}
\ No newline at end of file
+}
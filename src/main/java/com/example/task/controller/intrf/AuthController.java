@@ -1,6 +1,8 @@
 package com.example.task.controller.intrf;
 
 import com.example.task.model.pojo.AuthenticationRequest;
+import com.example.task.model.pojo.AuthenticationResponse;
+import com.example.task.model.pojo.PasswordChangeRequest;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -22,4 +24,21 @@ public interface AuthController {
             @ApiResponse(responseCode = "401", description = "Invalid username or password")
     })
     ResponseEntity<?> createAuthenticationToken(@RequestBody AuthenticationRequest authenticationRequest);
+
+    @PostMapping("/password")
+    @Operation(summary = "Смена пароля текущего пользователя",
+            description = "Проверяет текущий пароль и задает новый. Все ранее выпущенные токены пользователя "
+                    + "отзываются, в ответе - новый токен.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Пароль изменен"),
+            @ApiResponse(responseCode = "400", description = "Неверный текущий пароль или новый пароль не подходит")
+    })
+    ResponseEntity<AuthenticationResponse> changePassword(@RequestBody PasswordChangeRequest request);
+
+    @PostMapping("/revoke")
+    @Operation(summary = "Отзыв всех токенов текущего пользователя",
+            description = "Все ранее выпущенные токены пользователя, включая токен запроса, перестают приниматься; "
+                    + "в ответе - новый токен.")
+    @ApiResponse(responseCode = "200", description = "Токены отозваны")
+    ResponseEntity<AuthenticationResponse> revokeTokens();
 }
\ No newline at end of file
@@ -1,13 +1,14 @@
 package com.example.task.controller.intrf;
 
 
-import com.example.task.model.Comment;
+import com.example.task.model.pojo.CommentView;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Map;
@@ -27,8 +28,9 @@ public interface CommentController {
 
     @Operation(summary = "Получение всех комментариев по задаче")
     @ApiResponse(responseCode = "200", description = "Комментарии успешно получены")
+    @ApiResponse(responseCode = "304", description = "Комментарии не изменились с указанного в If-None-Match ETag")
     @ApiResponse(responseCode = "404", description = "Задача не найдена")
-    ResponseEntity<List<Comment>> getCommentsByTask(Long taskId);
+    ResponseEntity<List<CommentView>> getCommentsByTask(Long taskId, WebRequest request);
 
 
     @Operation(summary = "Удаление комментария")
@@ -1,11 +1,21 @@
 package com.example.task.controller.intrf;
 
 import com.example.task.model.Task;
+import com.example.task.model.pojo.TaskBatchResult;
+import com.example.task.model.pojo.TaskStats;
+import com.example.task.model.pojo.TaskStatusBatchResult;
+import com.example.task.model.pojo.TaskStatusChange;
+import com.example.task.model.pojo.TaskView;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -15,6 +25,15 @@ import java.util.Map;
  */
 public interface TaskController {
 
+    /**
+     * Общее описание параметров списков задач для документации эндпоинтов поиска, задач автора и исполнителя.
+     */
+    String LISTING_PARAMETERS = "Период создания задается параметрами createdFrom (включительно) и createdTo (не включительно), "
+            + "сортировка - параметром sort вида createdAt|updatedAt|id[,asc|desc]. "
+            + "При наличии параметра cursor (пустой для первой страницы) используется курсорная пагинация "
+            + "в порядке (created_at, id), вместе с ним sort не передается; "
+            + "count=false отключает подсчет общего количества задач.";
+
     @PostMapping
     @Operation(summary = "Создание новой задачи",
             description = "Создает новую задачу с указанными данными.")
@@ -22,24 +41,46 @@ public interface TaskController {
     ResponseEntity<String> createTask(@RequestBody Map<String, Object> requestData);
 
 
+    @Operation(summary = "Пакетное создание задач",
+            description = "Создает задачи из массива в одной транзакции и возвращает результат по каждой задаче. "
+                    + "mode=ALL_OR_NOTHING не создает ни одной задачи, если хотя бы одна не прошла проверку; "
+                    + "mode=BEST_EFFORT создает задачи без ошибок.")
+    @ApiResponse(responseCode = "201", description = "Все задачи созданы")
+    @ApiResponse(responseCode = "207", description = "Созданы только задачи без ошибок")
+    @ApiResponse(responseCode = "400", description = "Ни одна задача не создана, пакет пуст или слишком велик")
+    ResponseEntity<TaskBatchResult> createTasks(@RequestBody List<Map<String, Object>> items,
+                                                @RequestParam TaskBatchResult.Mode mode);
+
+
     @Operation(summary = "Частичное обновление задачи по ID",
-            description = "Обновляет частично или полностью задачу по ID.")
-    @ApiResponse(responseCode = "200", description = "Задача успешно обновлена")
+            description = "Обновляет частично или полностью задачу по ID. "
+                    + "Если передан If-Match, задача обновляется, только когда её текущий ETag указан в заголовке.")
+    @ApiResponse(responseCode = "200", description = "Задача успешно обновлена, в ETag - её новая версия")
     @ApiResponse(responseCode = "404", description = "Задача не найдена")
-    ResponseEntity<String> updateTask(@PathVariable Long id, @RequestBody Map<String, Object> taskDetails);
+    @ApiResponse(responseCode = "409", description = "Задача параллельно изменена другим запросом")
+    @ApiResponse(responseCode = "412", description = "Задача изменена после получения ETag из If-Match")
+    ResponseEntity<String> updateTask(@PathVariable Long id, @RequestBody Map<String, Object> taskDetails,
+                                      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch);
 
 
     @Operation(summary = "Получение задачи по ID",
             description = "Возвращает задачу по указанному ID.")
     @ApiResponse(responseCode = "200", description = "Задача успешно найдена")
+    @ApiResponse(responseCode = "304", description = "Задача не изменилась с указанного в If-None-Match ETag")
     @ApiResponse(responseCode = "404", description = "Задача не найдена")
-    ResponseEntity<Task> getTaskById(@PathVariable Long id);
+    ResponseEntity<TaskView> getTaskById(@PathVariable Long id, WebRequest request);
 
     @GetMapping
     @Operation(summary = "Получение всех задач",
             description = "Возвращает список всех задач.")
     @ApiResponse(responseCode = "200", description = "Список задач успешно получен")
-    ResponseEntity<List<Task>> getAllTasks();
+    ResponseEntity<List<TaskView>> getAllTasks();
+
+
+    @Operation(summary = "Потоковая выгрузка всех задач",
+            description = "Возвращает все задачи в формате NDJSON, по одной задаче на строку, не загружая таблицу в память.")
+    @ApiResponse(responseCode = "200", description = "Выгрузка задач успешно начата")
+    ResponseEntity<StreamingResponseBody> exportTasks();
 
 
     @Operation(summary = "Удаление задачи по ID",
@@ -50,32 +91,94 @@ public interface TaskController {
 
 
     @Operation(summary = "Обновление статуса задачи по ID",
-            description = "Обновляет статус задачи по указанному ID.")
+            description = "Обновляет статус задачи по указанному ID. Разрешены переходы PENDING -> IN_PROGRESS -> COMPLETED "
+                    + "и дополнительные переходы из tasks.status.extra-transitions.")
     @ApiResponse(responseCode = "200", description = "Статус задачи успешно изменен")
     @ApiResponse(responseCode = "404", description = "Задача не найдена")
+    @ApiResponse(responseCode = "409", description = "Переход не разрешен или статус задачи уже изменен другим запросом")
     ResponseEntity<String> changeStatus(@PathVariable Long id, @RequestBody Map<String, Object> taskDetails);
 
 
+    @Operation(summary = "Пакетное изменение статуса задач",
+            description = "Меняет статус задач из списка ids на status. Для каждой задачи возвращается итог: "
+                    + "UPDATED, UNCHANGED (уже в этом статусе), NOT_ALLOWED (переход не разрешен), NOT_FOUND "
+                    + "или FORBIDDEN (не автор и не исполнитель).")
+    @ApiResponse(responseCode = "200", description = "Итоги по задачам получены")
+    @ApiResponse(responseCode = "400", description = "Пустой или слишком длинный список задач, неверный статус")
+    ResponseEntity<TaskStatusBatchResult> changeStatuses(@RequestBody TaskStatusChange change);
+
+
+    @Operation(summary = "Поиск задач с пагинацией и фильтрацией",
+            description = "Возвращает задачи, отобранные по автору, исполнителю, статусу, приоритету и периоду создания. "
+                    + LISTING_PARAMETERS
+                    + " Параметр q включает полнотекстовый поиск по заголовку и описанию: задачи упорядочены по релевантности "
+                    + "и выдаются только курсорной пагинацией, sort не передается, page и count не учитываются.")
+    @ApiResponse(responseCode = "200", description = "Список задач успешно получен")
+    @ApiResponse(responseCode = "400", description = "Неверный курсор, параметр сортировки, sort вместе с cursor или q, пустой поисковый запрос")
+    @ApiResponse(responseCode = "404", description = "Задачи не найдены")
+    ResponseEntity<?> searchTasks(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) Long authorId,
+            @RequestParam(required = false) Long assigneeId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) Task.Status status,
+            @RequestParam(required = false) Task.Priority priority,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "true") boolean count);
+
+
     @Operation(summary = "Получение задач по автору с пагинацией и фильтрацией",
-            description = "Возвращает задачи, созданные указанным автором, с возможностью пагинации и фильтрации.")
+            description = "Возвращает задачи, созданные указанным автором. " + LISTING_PARAMETERS)
     @ApiResponse(responseCode = "200", description = "Список задач успешно получен")
+    @ApiResponse(responseCode = "400", description = "Неверный курсор, параметр сортировки или sort вместе с cursor")
     @ApiResponse(responseCode = "404", description = "Задачи не найдены")
     ResponseEntity<?> getTasksByAuthor(
             @PathVariable Long authorId,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(required = false) Task.Status status,
-            @RequestParam(required = false) Task.Priority priority);
+            @RequestParam(required = false) Task.Priority priority,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "true") boolean count);
 
 
     @Operation(summary = "Получение задач по исполнителю с пагинацией и фильтрацией",
-            description = "Возвращает задачи, назначенные указанному исполнителю, с возможностью пагинации и фильтрации.")
+            description = "Возвращает задачи, назначенные указанному исполнителю. " + LISTING_PARAMETERS)
     @ApiResponse(responseCode = "200", description = "Список задач успешно получен")
+    @ApiResponse(responseCode = "400", description = "Неверный курсор, параметр сортировки или sort вместе с cursor")
     @ApiResponse(responseCode = "404", description = "Задачи не найдены")
     ResponseEntity<?> getTasksByAssignee(
             @PathVariable Long assigneeId,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(required = false) Task.Status status,
-            @RequestParam(required = false) Task.Priority priority);
-}
\ No newline at end of file
+            @RequestParam(required = false) Task.Priority priority,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "true") boolean count);
+
+
+    @Operation(summary = "Статистика задач автора",
+            description = "Возвращает количество задач автора по статусам и приоритетам из счетчиков, "
+                    + "без подсчета задач в базе.")
+    @ApiResponse(responseCode = "200", description = "Статистика успешно получена")
+    @ApiResponse(responseCode = "400", description = "Автор не найден")
+    ResponseEntity<TaskStats> getAuthorStats(@PathVariable Long authorId);
+
+
+    @Operation(summary = "Статистика задач исполнителя",
+            description = "Возвращает количество задач исполнителя по статусам и приоритетам из счетчиков, "
+                    + "без подсчета задач в базе.")
+    @ApiResponse(responseCode = "200", description = "Статистика успешно получена")
+    @ApiResponse(responseCode = "400", description = "Исполнитель не найден")
+    ResponseEntity<TaskStats> getAssigneeStats(@PathVariable Long assigneeId);
+}
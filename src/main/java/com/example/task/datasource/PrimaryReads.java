@@ -0,0 +1,47 @@
+package com.example.task.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Чтения, которые должны идти на основную базу, даже если они выполняются в читающей транзакции.
+ * Нужны там, где прочитанное значение переживает запрос, например при заполнении кэша: значение
+ * с отстающей реплики хранилось бы в кэше до его истечения.
+ * <p>
+ * В отличие от пишущей транзакции такое чтение не отмечает пользователя в {@link RecentWriters}.
+ * Соединение должно быть получено внутри {@link #call}: транзакция, уже получившая соединение
+ * с реплики, продолжит читать с нее.
+ */
+public final class PrimaryReads {
+
+    private static final ThreadLocal<Boolean> FORCED = new ThreadLocal<>();
+
+    private PrimaryReads() {
+    }
+
+    /**
+     * Выполняет чтение, направляя читающие транзакции внутри него на основную базу.
+     *
+     * @param read чтение
+     * @return результат чтения
+     */
+    public static <T> T call(Supplier<T> read) {
+        Boolean previous = FORCED.get();
+        FORCED.set(Boolean.TRUE);
+        try {
+            return read.get();
+        } finally {
+            if (previous == null) {
+                FORCED.remove();
+            } else {
+                FORCED.set(previous);
+            }
+        }
+    }
+
+    /**
+     * @return true, если текущий поток выполняет чтение через {@link #call}
+     */
+    static boolean isForced() {
+        return FORCED.get() != null;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.task.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+
+/**
+ * Пользователи, недавно зафиксировавшие запись на основной базе.
+ * Пока запись не старше окна sticky-window, чтения этого пользователя идут на основную базу,
+ * чтобы он сразу видел свои изменения, даже если реплика еще не догнала основную базу.
+ * Список хранится в памяти узла: запрос, попавший на другой узел, такой гарантии не получает.
+ */
+public class RecentWriters {
+
+    private final Cache<String, Boolean> writers;
+
+    public RecentWriters(Duration stickyWindow, long maxSize) {
+        this.writers = Caffeine.newBuilder()
+                .expireAfterWrite(stickyWindow)
+                .maximumSize(maxSize)
+                .build();
+    }
+
+    /**
+     * Отмечает, что пользователь только что зафиксировал запись.
+     *
+     * @param username имя пользователя
+     */
+    public void recordWrite(String username) {
+        writers.put(username, Boolean.TRUE);
+    }
+
+    /**
+     * @param username имя пользователя или null
+     * @return true, если пользователь писал в пределах окна sticky-window
+     */
+    public boolean wroteRecently(String username) {
+        return username != null && writers.getIfPresent(username) != null;
+    }
+
+    /**
+     * Имя пользователя текущего запроса; null для анонимных запросов и фоновых задач.
+     */
+    static String currentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.task.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * Пул соединений к одной реплике PostgreSQL и последнее измеренное отставание реплики.
+ * Пока отставание не измерено или реплика недоступна, пул не участвует в выборе.
+ */
+@Slf4j
+public class ReplicaPool implements AutoCloseable {
+
+    /**
+     * Отставание в миллисекундах. Реплика, которая воспроизвела весь полученный WAL, не отстает,
+     * даже если на основной базе давно не было транзакций (иначе now() - replay_timestamp росло бы на простое).
+     * Сравнение нестрогое: после перезапуска реплики receive_lsn указывает на начало сегмента,
+     * с которого возобновлена передача, и до прихода нового WAL меньше replay_lsn.
+     * Для отстающей реплики время считается от последней воспроизведенной транзакции, поэтому после
+     * простоя основной базы отставание завышается - такая ошибка только отправляет чтение на основную базу.
+     * На основной базе (не в режиме восстановления) отставание тоже нулевое.
+     */
+    static final String LAG_QUERY = "SELECT CASE "
+            + "WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() <= pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE (EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000)::bigint END";
+
+    private final String name;
+
+    private final HikariDataSource dataSource;
+
+    private volatile Duration lag;
+
+    public ReplicaPool(String name, HikariDataSource dataSource) {
+        this.name = name;
+        this.dataSource = dataSource;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Connection getConnection() throws SQLException {
+        return dataSource.getConnection();
+    }
+
+    /**
+     * @return последнее измеренное отставание или null, если реплика недоступна или отставание неизвестно
+     */
+    public Duration getLag() {
+        return lag;
+    }
+
+    /**
+     * @param maxLag допустимое отставание
+     * @return true, если реплика доступна и отстает не больше maxLag
+     */
+    public boolean isWithin(Duration maxLag) {
+        Duration current = lag;
+        return current != null && current.compareTo(maxLag) <= 0;
+    }
+
+    /**
+     * Количество соединений пула, занятых запросами сейчас.
+     */
+    public int activeConnections() {
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        return pool == null ? 0 : pool.getActiveConnections();
+    }
+
+    /**
+     * Измеряет отставание реплики запросом {@link #LAG_QUERY}; при ошибке реплика исключается из выбора.
+     */
+    public void refreshLag() {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(LAG_QUERY)) {
+            result.next();
+            long millis = result.getLong(1);
+            recordLag(result.wasNull() ? null : Duration.ofMillis(millis));
+        } catch (SQLException e) {
+            if (lag != null) {
+                log.warn("Реплика {} недоступна: {}", name, e.getMessage());
+            }
+            recordLag(null);
+        }
+    }
+
+    /**
+     * Запоминает отставание реплики.
+     *
+     * @param lag отставание или null, если оно неизвестно
+     */
+    public void recordLag(Duration lag) {
+        this.lag = lag;
+    }
+
+    @Override
+    public void close() {
+        dataSource.close();
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.task.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Источник соединений для читающих транзакций: одна из реплик или, если ни одна не подходит, основная база.
+ * <p>
+ * Основная база выбирается, когда чтение явно направлено на нее ({@link PrimaryReads}),
+ * когда текущий пользователь недавно писал ({@link RecentWriters}),
+ * когда все реплики недоступны или отстают больше max-lag, и когда реплика не выдала соединение.
+ * Отставание измеряется раз в lag-check-interval-ms, поэтому фактическое отставание выбранной реплики
+ * может превышать max-lag не больше чем на этот интервал.
+ * <p>
+ * Каждый выбор учитывается в метрике datasource.routing с тегами target (имя реплики или primary)
+ * и reason (replica, forced, sticky, lag, error).
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    /**
+     * Способ выбора реплики среди подходящих по отставанию.
+     */
+    public enum Selection {
+        /**
+         * По очереди.
+         */
+        ROUND_ROBIN,
+        /**
+         * Реплика с наименьшим числом занятых соединений; при равенстве - по очереди.
+         */
+        LEAST_CONNECTIONS
+    }
+
+    private final DataSource primary;
+
+    private final List<ReplicaPool> replicas;
+
+    private final Selection selection;
+
+    private final Duration maxLag;
+
+    private final RecentWriters recentWriters;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final Map<ReplicaPool, Counter> replicaReads = new HashMap<>();
+
+    private final Counter forcedReads;
+
+    private final Counter stickyReads;
+
+    private final Counter laggingReads;
+
+    private final Counter failedReads;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<ReplicaPool> replicas, Selection selection,
+                                    Duration maxLag, RecentWriters recentWriters, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.selection = selection;
+        this.maxLag = maxLag;
+        this.recentWriters = recentWriters;
+        for (ReplicaPool replica : this.replicas) {
+            replicaReads.put(replica, routingCounter(meterRegistry, replica.getName(), "replica"));
+            TimeGauge.builder("datasource.replica.lag", replica, TimeUnit.MILLISECONDS,
+                            pool -> pool.getLag() == null ? Double.NaN : pool.getLag().toMillis())
+                    .description("Отставание реплики от основной базы")
+                    .tag("replica", replica.getName())
+                    .register(meterRegistry);
+        }
+        this.forcedReads = routingCounter(meterRegistry, "primary", "forced");
+        this.stickyReads = routingCounter(meterRegistry, "primary", "sticky");
+        this.laggingReads = routingCounter(meterRegistry, "primary", "lag");
+        this.failedReads = routingCounter(meterRegistry, "primary", "error");
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (PrimaryReads.isForced()) {
+            forcedReads.increment();
+            return primary.getConnection();
+        }
+        if (recentWriters.wroteRecently(RecentWriters.currentUsername())) {
+            stickyReads.increment();
+            return primary.getConnection();
+        }
+        ReplicaPool replica = select();
+        if (replica == null) {
+            laggingReads.increment();
+            return primary.getConnection();
+        }
+        try {
+            Connection connection = replica.getConnection();
+            replicaReads.get(replica).increment();
+            return connection;
+        } catch (SQLException e) {
+            log.warn("Реплика {} не выдала соединение, чтение идет на основную базу: {}", replica.getName(), e.getMessage());
+            replica.recordLag(null);
+            failedReads.increment();
+            return primary.getConnection();
+        }
+    }
+
+    /**
+     * Соединения с другими учетными данными не поддерживаются: реплики используют учетные данные пулов.
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new UnsupportedOperationException("Реплики используют учетные данные своих пулов");
+    }
+
+    /**
+     * Измеряет отставание всех реплик.
+     */
+    @Scheduled(fixedDelayString = "${datasource.replicas.lag-check-interval-ms:1000}")
+    public void refreshLag() {
+        replicas.forEach(ReplicaPool::refreshLag);
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(ReplicaPool::close);
+    }
+
+    /**
+     * @return реплика, отстающая не больше max-lag, или null, если таких нет
+     */
+    private ReplicaPool select() {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        ReplicaPool selected = null;
+        int selectedConnections = Integer.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            ReplicaPool replica = replicas.get((start + i) % size);
+            if (!replica.isWithin(maxLag)) {
+                continue;
+            }
+            if (selection == Selection.ROUND_ROBIN) {
+                return replica;
+            }
+            int connections = replica.activeConnections();
+            if (connections < selectedConnections) {
+                selected = replica;
+                selectedConnections = connections;
+            }
+        }
+        return selected;
+    }
+
+    private static Counter routingCounter(MeterRegistry meterRegistry, String target, String reason) {
+        return Counter.builder("datasource.routing")
+                .description("Соединения, выданные читающим транзакциям")
+                .tag("target", target)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
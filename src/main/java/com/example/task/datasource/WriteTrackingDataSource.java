@@ -0,0 +1,53 @@
+package com.example.task.datasource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Основная база, которая запоминает авторов пишущих транзакций в {@link RecentWriters}.
+ * Пользователь отмечается только после коммита: откаченная транзакция ничего не изменила,
+ * и читать с основной базы после нее незачем.
+ */
+public class WriteTrackingDataSource extends DelegatingDataSource {
+
+    private final RecentWriters recentWriters;
+
+    public WriteTrackingDataSource(DataSource primary, RecentWriters recentWriters) {
+        super(primary);
+        this.recentWriters = recentWriters;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        trackWriter();
+        return super.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        trackWriter();
+        return super.getConnection(username, password);
+    }
+
+    private void trackWriter() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return;
+        }
+        String username = RecentWriters.currentUsername();
+        if (username == null) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recentWriters.recordWrite(username);
+            }
+        });
+    }
+}
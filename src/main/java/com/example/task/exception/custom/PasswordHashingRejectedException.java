@@ -0,0 +1,7 @@
+package com.example.task.exception.custom;
+
+public class PasswordHashingRejectedException extends RuntimeException {
+    public PasswordHashingRejectedException(String message) {
+        super(message);
+    }
+}
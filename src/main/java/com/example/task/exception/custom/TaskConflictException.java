@@ -0,0 +1,8 @@
+package com.example.task.exception.custom;
+
+public class TaskConflictException extends RuntimeException {
+
+    public TaskConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.task.exception.custom;
+
+public class TaskPreconditionFailedException extends RuntimeException {
+
+    public TaskPreconditionFailedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.task.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.io.Serializable;
+import java.util.Comparator;
+
+/**
+ * Количество задач пользователя в роли автора или исполнителя с заданными статусом и приоритетом.
+ */
+@Entity
+@Table(name = "task_counters")
+@IdClass(TaskCounter.Key.class)
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskCounter {
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Scope scope;
+
+    @Id
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Task.Status status;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Task.Priority priority;
+
+    @Column(name = "task_count", nullable = false)
+    private long taskCount;
+
+    public enum Scope {
+        AUTHOR, ASSIGNEE
+    }
+
+    /**
+     * Составной ключ счетчика.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        /**
+         * Порядок, в котором счетчики обновляются в одной транзакции: одинаковый порядок
+         * блокировки строк исключает взаимные блокировки параллельных изменений.
+         */
+        public static final Comparator<Key> ORDER = Comparator.comparing(Key::getScope)
+                .thenComparing(Key::getUserId)
+                .thenComparing(Key::getStatus)
+                .thenComparing(Key::getPriority);
+
+        private Scope scope;
+
+        private Long userId;
+
+        private Task.Status status;
+
+        private Task.Priority priority;
+    }
+}
@@ -3,35 +3,67 @@ package com.example.task.model;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.Hibernate;
 
 import java.util.List;
 
 @Entity
 @Table(name = "users")
-@Data
+@Getter
+@Setter
+@ToString
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class User {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_id_seq")
+    @SequenceGenerator(name = "users_id_seq", sequenceName = "users_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true)
     private String username;
 
+    @ToString.Exclude
     @Column(nullable = false)
     private String password;
 
+    @Column(name = "credential_version", nullable = false)
+    @Builder.Default
+    private Integer credentialVersion = 0;
+
+    @ToString.Exclude
     @OneToMany(mappedBy = "author")
     @JsonManagedReference
     private List<Task> tasks;
 
+    @ToString.Exclude
     @OneToMany(mappedBy = "assignee")
     @JsonManagedReference
     private List<Task> assignedTasks;
 
+    @ToString.Exclude
     @OneToMany(mappedBy = "author")
     @JsonManagedReference
     private List<Comment> comments;
-}
\ No newline at end of file
+
+    /**
+     * Сущности сравниваются только по идентификатору: несохраненная сущность равна лишь самой себе,
+     * а связи, коллекции и ленивые прокси при сравнении не загружаются.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || Hibernate.getClassLazy(this) != Hibernate.getClassLazy(o)) {
+            return false;
+        }
+        return getId() != null && getId().equals(((User) o).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Hibernate.getClassLazy(this).hashCode();
+    }
+}
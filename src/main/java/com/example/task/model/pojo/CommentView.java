@@ -0,0 +1,15 @@
+package com.example.task.model.pojo;
+
+import java.time.LocalDateTime;
+
+/**
+ * Неизменяемое представление комментария для чтения.
+ * Заполняется конструкторным выражением JPQL, поэтому не попадает в контекст персистентности.
+ */
+public record CommentView(
+        Long id,
+        Long taskId,
+        Long authorId,
+        String content,
+        LocalDateTime createdAt) {
+}
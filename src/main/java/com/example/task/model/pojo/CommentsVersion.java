@@ -0,0 +1,11 @@
+package com.example.task.model.pojo;
+
+/**
+ * Версия списка комментариев задачи: количество и идентификатор последнего комментария.
+ * Меняется при добавлении и удалении комментариев.
+ *
+ * @param count         количество комментариев
+ * @param lastCommentId идентификатор последнего комментария или null, если комментариев нет
+ */
+public record CommentsVersion(Long count, Long lastCommentId) {
+}
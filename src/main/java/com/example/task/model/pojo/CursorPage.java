@@ -0,0 +1,17 @@
+package com.example.task.model.pojo;
+
+import java.util.List;
+
+/**
+ * Страница курсорной пагинации без подсчета общего количества элементов.
+ *
+ * @param content    элементы страницы
+ * @param nextCursor курсор следующей страницы или null, если страница последняя
+ * @param <T>        тип элементов
+ */
+public record CursorPage<T>(List<T> content, String nextCursor) {
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
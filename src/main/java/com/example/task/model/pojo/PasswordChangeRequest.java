@@ -0,0 +1,10 @@
+package com.example.task.model.pojo;
+
+/**
+ * Запрос на смену пароля текущего пользователя.
+ *
+ * @param oldPassword текущий пароль
+ * @param newPassword новый пароль
+ */
+public record PasswordChangeRequest(String oldPassword, String newPassword) {
+}
@@ -0,0 +1,38 @@
+package com.example.task.model.pojo;
+
+import java.util.List;
+
+/**
+ * Результат пакетного создания задач.
+ *
+ * @param mode    режим обработки ошибок, с которым выполнен пакет
+ * @param created количество созданных задач
+ * @param failed  количество задач с ошибками
+ * @param items   результаты по задачам в порядке запроса
+ */
+public record TaskBatchResult(Mode mode, int created, int failed, List<Item> items) {
+
+    /**
+     * Что делать с пакетом, в котором часть задач не прошла проверку.
+     */
+    public enum Mode {
+        /**
+         * Не создавать ни одной задачи.
+         */
+        ALL_OR_NOTHING,
+        /**
+         * Создать задачи без ошибок.
+         */
+        BEST_EFFORT
+    }
+
+    /**
+     * Результат по одной задаче пакета.
+     *
+     * @param index позиция задачи в запросе, начиная с 0
+     * @param id    идентификатор созданной задачи или null, если задача не создана
+     * @param error причина, по которой задача не создана, или null
+     */
+    public record Item(int index, Long id, String error) {
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.task.model.pojo;
+
+import com.example.task.model.Task;
+
+/**
+ * Поля задачи, по которым ведутся счетчики задач.
+ *
+ * @param authorId   идентификатор автора
+ * @param assigneeId идентификатор исполнителя или null
+ * @param status     статус задачи
+ * @param priority   приоритет задачи
+ */
+public record TaskDimensions(Long authorId, Long assigneeId, Task.Status status, Task.Priority priority) {
+
+    /**
+     * Снимок текущих значений задачи. Идентификаторы берутся из прокси автора и исполнителя без их загрузки.
+     *
+     * @param task задача
+     * @return поля задачи для счетчиков
+     */
+    public static TaskDimensions of(Task task) {
+        return new TaskDimensions(task.getAuthor().getId(),
+                task.getAssignee() != null ? task.getAssignee().getId() : null,
+                task.getStatus(), task.getPriority());
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.task.model.pojo;
+
+import com.example.task.model.Task;
+import lombok.Builder;
+
+import java.time.LocalDateTime;
+
+/**
+ * Условия выборки задач. Незаданные (null) условия не ограничивают выборку.
+ *
+ * @param authorId    идентификатор автора
+ * @param assigneeId  идентификатор исполнителя
+ * @param status      статус задачи
+ * @param priority    приоритет задачи
+ * @param createdFrom начало периода создания (включительно)
+ * @param createdTo   конец периода создания (не включительно)
+ */
+@Builder
+public record TaskFilter(
+        Long authorId,
+        Long assigneeId,
+        Task.Status status,
+        Task.Priority priority,
+        LocalDateTime createdFrom,
+        LocalDateTime createdTo) {
+}
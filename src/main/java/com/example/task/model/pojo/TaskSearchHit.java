@@ -0,0 +1,10 @@
+package com.example.task.model.pojo;
+
+/**
+ * Задача, найденная полнотекстовым поиском, вместе с её релевантностью.
+ *
+ * @param task представление задачи
+ * @param rank релевантность (ts_rank), по убыванию которой упорядочена выдача
+ */
+public record TaskSearchHit(TaskView task, float rank) {
+}
@@ -0,0 +1,15 @@
+package com.example.task.model.pojo;
+
+import com.example.task.model.Task;
+
+import java.util.Map;
+
+/**
+ * Количество задач пользователя по статусам и приоритетам.
+ *
+ * @param userId идентификатор автора или исполнителя
+ * @param counts количество задач по статусу и приоритету, включая нулевые сочетания
+ * @param total  общее количество задач
+ */
+public record TaskStats(Long userId, Map<Task.Status, Map<Task.Priority, Long>> counts, long total) {
+}
@@ -0,0 +1,48 @@
+package com.example.task.model.pojo;
+
+import com.example.task.model.Task;
+
+import java.util.List;
+
+/**
+ * Результат пакетной смены статуса задач.
+ *
+ * @param status  новый статус
+ * @param updated количество задач, у которых изменен статус
+ * @param items   результаты по задачам в порядке запроса, без повторов
+ */
+public record TaskStatusBatchResult(Task.Status status, int updated, List<Item> items) {
+
+    /**
+     * Итог смены статуса одной задачи.
+     */
+    public enum Outcome {
+        /**
+         * Статус изменен.
+         */
+        UPDATED,
+        /**
+         * Задача уже была в этом статусе.
+         */
+        UNCHANGED,
+        /**
+         * Переход из текущего статуса задачи в новый не разрешен.
+         */
+        NOT_ALLOWED,
+        /**
+         * Задачи нет.
+         */
+        NOT_FOUND,
+        /**
+         * Текущий пользователь не автор и не исполнитель задачи.
+         */
+        FORBIDDEN
+    }
+
+    /**
+     * @param id      идентификатор задачи
+     * @param outcome итог смены статуса
+     */
+    public record Item(Long id, Outcome outcome) {
+    }
+}
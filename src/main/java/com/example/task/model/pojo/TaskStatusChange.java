@@ -0,0 +1,12 @@
+package com.example.task.model.pojo;
+
+import java.util.List;
+
+/**
+ * Запрос на смену статуса нескольких задач.
+ *
+ * @param ids    идентификаторы задач
+ * @param status новый статус
+ */
+public record TaskStatusChange(List<Long> ids, String status) {
+}
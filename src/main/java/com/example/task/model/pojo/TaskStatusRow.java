@@ -0,0 +1,24 @@
+package com.example.task.model.pojo;
+
+import com.example.task.model.Task;
+
+/**
+ * Поля задачи, нужные для пакетной смены статуса: владельцы и поля счетчиков.
+ * Заполняется конструкторным выражением JPQL без загрузки сущностей.
+ *
+ * @param id         идентификатор задачи
+ * @param authorId   идентификатор автора
+ * @param assigneeId идентификатор исполнителя или null
+ * @param status     статус задачи
+ * @param priority   приоритет задачи
+ */
+public record TaskStatusRow(Long id, Long authorId, Long assigneeId, Task.Status status, Task.Priority priority) {
+
+    /**
+     * @param status статус задачи
+     * @return поля задачи для счетчиков с указанным статусом
+     */
+    public TaskDimensions dimensions(Task.Status status) {
+        return new TaskDimensions(authorId, assigneeId, status, priority);
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.task.model.pojo;
+
+import com.example.task.model.Task;
+
+import java.time.LocalDateTime;
+
+/**
+ * Неизменяемое представление задачи для чтения.
+ * Заполняется конструкторным выражением JPQL, поэтому не попадает в контекст персистентности.
+ */
+public record TaskView(
+        Long id,
+        String title,
+        String description,
+        Task.Status status,
+        Task.Priority priority,
+        Long authorId,
+        Long assigneeId,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        Long version) {
+}
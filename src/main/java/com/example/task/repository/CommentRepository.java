@@ -1,14 +1,47 @@
 package com.example.task.repository;
 
 import com.example.task.model.Comment;
-import com.example.task.model.Task;
+import com.example.task.model.pojo.CommentView;
+import com.example.task.model.pojo.CommentsVersion;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Репозиторий для работы с комментариями.
+ * Собственные запросы - читающие транзакции, которые могут выполняться на реплике;
+ * удаление выполняется только в пишущей транзакции сервиса.
  */
+@Transactional(readOnly = true)
 public interface CommentRepository extends JpaRepository<Comment, Long> {
-    List<Comment> findByTask(Task task);
-}
\ No newline at end of file
+
+    /**
+     * Комментарии задачи в порядке создания; выбираются только колонки таблицы comments.
+     */
+    @Query("select new com.example.task.model.pojo.CommentView(c.id, c.task.id, c.author.id, c.content, c.createdAt) "
+            + "from Comment c where c.task.id = :taskId order by c.id")
+    List<CommentView> findViewsByTaskId(@Param("taskId") Long taskId);
+
+    /**
+     * Версия списка комментариев задачи; пусто, если задачи не существует.
+     */
+    @Query("select new com.example.task.model.pojo.CommentsVersion(count(c), max(c.id)) "
+            + "from Task t left join t.comments c where t.id = :taskId group by t.id")
+    Optional<CommentsVersion> findVersionByTaskId(@Param("taskId") Long taskId);
+
+    /**
+     * Удаляет все комментарии задачи одним DELETE, без загрузки комментариев.
+     *
+     * @return количество удаленных комментариев
+     */
+    @Modifying
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Query("delete from Comment c where c.task.id = :taskId")
+    int deleteByTaskId(@Param("taskId") Long taskId);
+}
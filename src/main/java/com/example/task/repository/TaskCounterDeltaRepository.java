@@ -0,0 +1,21 @@
+package com.example.task.repository;
+
+import com.example.task.model.TaskCounter;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+
+/**
+ * Изменение счетчиков задач на приращения.
+ */
+public interface TaskCounterDeltaRepository {
+
+    /**
+     * Прибавляет приращения к счетчикам одним запросом, создавая отсутствующие счетчики.
+     * Выполняется в текущей транзакции, если она есть.
+     *
+     * @param deltas приращения по ключам счетчиков; нулевые приращения не передаются
+     */
+    @Transactional
+    void applyDeltas(Map<TaskCounter.Key, Long> deltas);
+}
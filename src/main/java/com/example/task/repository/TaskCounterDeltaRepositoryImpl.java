@@ -0,0 +1,64 @@
+package com.example.task.repository;
+
+import com.example.task.model.TaskCounter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Реализация {@link TaskCounterDeltaRepository} через HQL insert ... on conflict do update:
+ * на PostgreSQL это один INSERT ... ON CONFLICT на все затронутые счетчики, без предварительного чтения.
+ * Строки передаются в порядке {@link TaskCounter.Key#ORDER}.
+ */
+public class TaskCounterDeltaRepositoryImpl implements TaskCounterDeltaRepository {
+
+    /**
+     * Строк в одном INSERT: по пять параметров на строку, а драйвер PostgreSQL принимает не больше 32767 параметров.
+     * Большие наборы приращений (пакетные изменения, сверка) делятся на несколько запросов в том же порядке.
+     */
+    static final int MAX_ROWS = 1000;
+
+    private final EntityManager entityManager;
+
+    @Autowired
+    public TaskCounterDeltaRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public void applyDeltas(Map<TaskCounter.Key, Long> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<TaskCounter.Key, Long>> rows = deltas.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(TaskCounter.Key.ORDER))
+                .toList();
+        for (int from = 0; from < rows.size(); from += MAX_ROWS) {
+            upsert(rows.subList(from, Math.min(from + MAX_ROWS, rows.size())));
+        }
+    }
+
+    private void upsert(List<Map.Entry<TaskCounter.Key, Long>> rows) {
+        StringBuilder hql = new StringBuilder("insert into TaskCounter (scope, userId, status, priority, taskCount) values ");
+        for (int i = 0; i < rows.size(); i++) {
+            hql.append(i == 0 ? "" : ", ")
+                    .append("(:scope").append(i).append(", :userId").append(i).append(", :status").append(i)
+                    .append(", :priority").append(i).append(", :delta").append(i).append(')');
+        }
+        hql.append(" on conflict (scope, userId, status, priority) do update set taskCount = taskCount + excluded.taskCount");
+
+        Query query = entityManager.createQuery(hql.toString());
+        for (int i = 0; i < rows.size(); i++) {
+            TaskCounter.Key key = rows.get(i).getKey();
+            query.setParameter("scope" + i, key.getScope())
+                    .setParameter("userId" + i, key.getUserId())
+                    .setParameter("status" + i, key.getStatus())
+                    .setParameter("priority" + i, key.getPriority())
+                    .setParameter("delta" + i, rows.get(i).getValue());
+        }
+        query.executeUpdate();
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.task.repository;
+
+import com.example.task.model.TaskCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Репозиторий счетчиков задач.
+ */
+@Repository
+public interface TaskCounterRepository extends JpaRepository<TaskCounter, TaskCounter.Key>, TaskCounterDeltaRepository {
+
+    /**
+     * Ключ advisory-блокировки, под которой выполняется сверка счетчиков.
+     */
+    long RECONCILE_LOCK_KEY = 0x7461736B636E74L;
+
+    /**
+     * Счетчики пользователя в одной роли: не больше чем статусов × приоритетов строк по первичному ключу.
+     */
+    List<TaskCounter> findByScopeAndUserId(TaskCounter.Scope scope, Long userId);
+
+    /**
+     * Количество задач по авторам, посчитанное по таблице задач.
+     */
+    @Query("select new com.example.task.model.TaskCounter(com.example.task.model.TaskCounter.Scope.AUTHOR, "
+            + "t.author.id, t.status, t.priority, count(t)) "
+            + "from Task t group by t.author.id, t.status, t.priority")
+    List<TaskCounter> countByAuthor();
+
+    /**
+     * Количество задач по исполнителям, посчитанное по таблице задач.
+     */
+    @Query("select new com.example.task.model.TaskCounter(com.example.task.model.TaskCounter.Scope.ASSIGNEE, "
+            + "t.assignee.id, t.status, t.priority, count(t)) "
+            + "from Task t where t.assignee is not null group by t.assignee.id, t.status, t.priority")
+    List<TaskCounter> countByAssignee();
+
+    /**
+     * Пытается взять advisory-блокировку PostgreSQL до конца текущей транзакции, не дожидаясь ее освобождения.
+     *
+     * @param key ключ блокировки
+     * @return true, если блокировка взята; false, если ее держит другая транзакция
+     */
+    @Query(value = "select pg_try_advisory_xact_lock(:key)", nativeQuery = true)
+    boolean tryAdvisoryXactLock(@Param("key") long key);
+}
@@ -0,0 +1,50 @@
+package com.example.task.repository;
+
+import com.example.task.model.pojo.TaskFilter;
+import com.example.task.model.pojo.TaskSearchHit;
+import com.example.task.model.pojo.TaskView;
+import com.example.task.util.pagination.TaskCursor;
+import com.example.task.util.pagination.TaskSearchCursor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Выборка задач по произвольному набору условий {@link TaskFilter}.
+ * Возвращает представления {@link TaskView}, а не сущности.
+ * Все выборки - читающие транзакции, которые могут выполняться на реплике.
+ */
+@Transactional(readOnly = true)
+public interface TaskFilterRepository {
+
+    /**
+     * Страница задач с подсчетом общего количества.
+     */
+    Page<TaskView> findByFilter(TaskFilter filter, Pageable pageable);
+
+    /**
+     * Срез задач без подсчета общего количества (запрашивается на одну строку больше).
+     */
+    Slice<TaskView> findSliceByFilter(TaskFilter filter, Pageable pageable);
+
+    /**
+     * Задачи, следующие за позицией курсора в порядке (created_at, id).
+     *
+     * @param after позиция курсора или null для первой страницы
+     * @param limit максимальное количество задач
+     */
+    List<TaskView> findByFilterAfter(TaskFilter filter, TaskCursor after, int limit);
+
+    /**
+     * Полнотекстовый поиск по заголовку и описанию задач с учетом фильтра,
+     * в порядке убывания релевантности и возрастания id.
+     *
+     * @param text  поисковый запрос в синтаксисе websearch_to_tsquery
+     * @param after позиция курсора или null для первой страницы
+     * @param limit максимальное количество задач
+     */
+    List<TaskSearchHit> searchByText(String text, TaskFilter filter, TaskSearchCursor after, int limit);
+}
@@ -0,0 +1,194 @@
+package com.example.task.repository;
+
+import com.example.task.model.Task;
+import com.example.task.model.User;
+import com.example.task.model.pojo.TaskFilter;
+import com.example.task.model.pojo.TaskSearchHit;
+import com.example.task.model.pojo.TaskView;
+import com.example.task.util.pagination.TaskCursor;
+import com.example.task.util.pagination.TaskSearchCursor;
+import com.example.task.util.pagination.TaskSort;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.query.NativeQuery;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Реализация {@link TaskFilterRepository} на Criteria API.
+ * В запрос попадают только заданные условия, поэтому одна реализация покрывает
+ * все сочетания фильтров и использует составные индексы tasks по (author_id | assignee_id, status, created_at, id).
+ * Выбираются только колонки {@link TaskView}, сущности в контекст персистентности не загружаются.
+ * Полнотекстовый поиск написан на нативном SQL: оператор @@ нужен, чтобы PostgreSQL использовал GIN индекс по search_vector.
+ */
+public class TaskFilterRepositoryImpl implements TaskFilterRepository {
+
+    private static final String RANK = "ts_rank(t.search_vector, q)";
+
+    private static final String SEARCH_SELECT = "SELECT t.id, t.title, t.description, t.status, t.priority, "
+            + "t.author_id, t.assignee_id, t.created_at, t.updated_at, t.version, " + RANK + " AS rank "
+            + "FROM tasks t, websearch_to_tsquery('russian', :text) q "
+            + "WHERE t.search_vector @@ q";
+
+    private final EntityManager entityManager;
+
+    @Autowired
+    public TaskFilterRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public Page<TaskView> findByFilter(TaskFilter filter, Pageable pageable) {
+        List<TaskView> content = select(filter, null, pageable.getSort(), (int) pageable.getOffset(), pageable.getPageSize());
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(filter));
+    }
+
+    @Override
+    public Slice<TaskView> findSliceByFilter(TaskFilter filter, Pageable pageable) {
+        int size = pageable.getPageSize();
+        List<TaskView> content = select(filter, null, pageable.getSort(), (int) pageable.getOffset(), size + 1);
+        boolean hasNext = content.size() > size;
+        return new SliceImpl<>(hasNext ? content.subList(0, size) : content, pageable, hasNext);
+    }
+
+    @Override
+    public List<TaskView> findByFilterAfter(TaskFilter filter, TaskCursor after, int limit) {
+        return select(filter, after, TaskSort.KEYSET, 0, limit);
+    }
+
+    @Override
+    public List<TaskSearchHit> searchByText(String text, TaskFilter filter, TaskSearchCursor after, int limit) {
+        StringBuilder sql = new StringBuilder(SEARCH_SELECT);
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("text", text);
+        if (filter.authorId() != null) {
+            sql.append(" AND t.author_id = :authorId");
+            parameters.put("authorId", filter.authorId());
+        }
+        if (filter.assigneeId() != null) {
+            sql.append(" AND t.assignee_id = :assigneeId");
+            parameters.put("assigneeId", filter.assigneeId());
+        }
+        if (filter.status() != null) {
+            sql.append(" AND t.status = :status");
+            parameters.put("status", filter.status().name());
+        }
+        if (filter.priority() != null) {
+            sql.append(" AND t.priority = :priority");
+            parameters.put("priority", filter.priority().name());
+        }
+        if (filter.createdFrom() != null) {
+            sql.append(" AND t.created_at >= :createdFrom");
+            parameters.put("createdFrom", filter.createdFrom());
+        }
+        if (filter.createdTo() != null) {
+            sql.append(" AND t.created_at < :createdTo");
+            parameters.put("createdTo", filter.createdTo());
+        }
+        if (after != null) {
+            sql.append(" AND (" + RANK + " < :rank OR (" + RANK + " = :rank AND t.id > :id))");
+            parameters.put("rank", after.rank());
+            parameters.put("id", after.id());
+        }
+        sql.append(" ORDER BY rank DESC, t.id");
+
+        @SuppressWarnings("unchecked")
+        NativeQuery<Object[]> query = entityManager.createNativeQuery(sql.toString())
+                .unwrap(NativeQuery.class)
+                .addScalar("id", Long.class)
+                .addScalar("title", String.class)
+                .addScalar("description", String.class)
+                .addScalar("status", String.class)
+                .addScalar("priority", String.class)
+                .addScalar("author_id", Long.class)
+                .addScalar("assignee_id", Long.class)
+                .addScalar("created_at", LocalDateTime.class)
+                .addScalar("updated_at", LocalDateTime.class)
+                .addScalar("version", Long.class)
+                .addScalar("rank", Float.class);
+        parameters.forEach(query::setParameter);
+
+        return query.setMaxResults(limit)
+                .getResultList()
+                .stream()
+                .map(row -> new TaskSearchHit(new TaskView((Long) row[0], (String) row[1], (String) row[2],
+                        Task.Status.valueOf((String) row[3]), Task.Priority.valueOf((String) row[4]),
+                        (Long) row[5], (Long) row[6], (LocalDateTime) row[7], (LocalDateTime) row[8], (Long) row[9]), (Float) row[10]))
+                .toList();
+    }
+
+    private List<TaskView> select(TaskFilter filter, TaskCursor after, Sort sort, int offset, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TaskView> query = cb.createQuery(TaskView.class);
+        Root<Task> task = query.from(Task.class);
+        Join<Task, User> assignee = task.join("assignee", JoinType.LEFT);
+
+        List<Predicate> predicates = predicates(cb, task, filter);
+        if (after != null) {
+            Path<LocalDateTime> createdAt = task.get("createdAt");
+            predicates.add(cb.or(
+                    cb.greaterThan(createdAt, after.createdAt()),
+                    cb.and(cb.equal(createdAt, after.createdAt()), cb.greaterThan(task.<Long>get("id"), after.id()))));
+        }
+        query.select(cb.construct(TaskView.class,
+                        task.get("id"), task.get("title"), task.get("description"), task.get("status"), task.get("priority"),
+                        task.get("author").get("id"), assignee.get("id"), task.get("createdAt"), task.get("updatedAt"),
+                        task.get("version")))
+                .where(predicates.toArray(Predicate[]::new))
+                .orderBy(QueryUtils.toOrders(sort, task, cb));
+
+        return entityManager.createQuery(query)
+                .setFirstResult(offset)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    private long count(TaskFilter filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Task> task = query.from(Task.class);
+        query.select(cb.count(task)).where(predicates(cb, task, filter).toArray(Predicate[]::new));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private static List<Predicate> predicates(CriteriaBuilder cb, Root<Task> task, TaskFilter filter) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter.authorId() != null) {
+            predicates.add(cb.equal(task.get("author").get("id"), filter.authorId()));
+        }
+        if (filter.assigneeId() != null) {
+            predicates.add(cb.equal(task.get("assignee").get("id"), filter.assigneeId()));
+        }
+        if (filter.status() != null) {
+            predicates.add(cb.equal(task.get("status"), filter.status()));
+        }
+        if (filter.priority() != null) {
+            predicates.add(cb.equal(task.get("priority"), filter.priority()));
+        }
+        if (filter.createdFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(task.<LocalDateTime>get("createdAt"), filter.createdFrom()));
+        }
+        if (filter.createdTo() != null) {
+            predicates.add(cb.lessThan(task.<LocalDateTime>get("createdAt"), filter.createdTo()));
+        }
+        return predicates;
+    }
+}
@@ -1,31 +1,107 @@
 package com.example.task.repository;
 
 import com.example.task.model.Task;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import com.example.task.model.pojo.TaskStatusRow;
+import com.example.task.model.pojo.TaskView;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 
 /**
  * Репозиторий для работы с задачами.
+ * Собственные запросы выполняются в читающих транзакциях и при настроенных репликах идут на реплику;
+ * внутри пишущей транзакции сервиса они выполняются в ней, на основной базе.
  */
-public interface TaskRepository extends JpaRepository<Task, Long> {
+@Transactional(readOnly = true)
+public interface TaskRepository extends JpaRepository<Task, Long>, TaskFilterRepository {
 
+    /**
+     * Выборка {@link TaskView}: только колонки таблицы tasks, без загрузки пользователей и комментариев.
+     */
+    String VIEW_SELECT = "select new com.example.task.model.pojo.TaskView("
+            + "t.id, t.title, t.description, t.status, t.priority, t.author.id, a.id, t.createdAt, t.updatedAt, t.version) "
+            + "from Task t left join t.assignee a";
 
-    Page<Task> findByAuthorId(Long authorId, Pageable pageable);
+    /**
+     * Загружает задачу вместе с исполнителем одним запросом (нужен при проверке обновления задачи).
+     * Автор остается ленивой ссылкой: для проверки владельца достаточно его идентификатора.
+     */
+    @EntityGraph(attributePaths = "assignee")
+    @Query("select t from Task t where t.id = :id")
+    Optional<Task> findWithAssigneeById(@Param("id") Long id);
 
-    Page<Task> findByAssigneeId(Long assigneeId, Pageable pageable);
+    /**
+     * Версия задачи для проверки ETag.
+     */
+    @Query("select t.version from Task t where t.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
 
+    @Query(VIEW_SELECT + " where t.id = :id")
+    Optional<TaskView> findViewById(@Param("id") Long id);
 
-    Page<Task> findByAuthorIdAndStatus(Long authorId, Task.Status status, Pageable pageable);
+    @Query(VIEW_SELECT + " order by t.id")
+    List<TaskView> findAllViews();
 
-    Page<Task> findByAuthorIdAndPriority(Long authorId, Task.Priority priority, Pageable pageable);
+    @Query("select new com.example.task.model.pojo.TaskStatusRow(t.id, t.author.id, t.assignee.id, t.status, t.priority) "
+            + "from Task t where t.id = :id")
+    Optional<TaskStatusRow> findStatusRowById(@Param("id") Long id);
 
-    Page<Task> findByAuthorIdAndStatusAndPriority(Long authorId, Task.Status status, Task.Priority priority, Pageable pageable);
+    /**
+     * Меняет статус задачи, только если она все еще в статусе from, а пользователь - её автор или исполнитель.
+     * Версия задачи увеличивается, как при обновлении сущности.
+     *
+     * @return 1, если статус изменен этим запросом, иначе 0
+     */
+    @Modifying
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Query("update Task t set t.status = :to, t.updatedAt = :updatedAt, t.version = t.version + 1 "
+            + "where t.id = :id and t.status = :from and (t.author.id = :userId or t.assignee.id = :userId)")
+    int compareAndSetStatus(@Param("id") Long id, @Param("from") Task.Status from, @Param("to") Task.Status to,
+                            @Param("userId") Long userId, @Param("updatedAt") LocalDateTime updatedAt);
 
-    Page<Task> findByAssigneeIdAndStatus(Long assigneeId, Task.Status status, Pageable pageable);
+    /**
+     * Блокирует задачи с указанными id до конца транзакции и возвращает поля, нужные для смены статуса.
+     * Строки блокируются в порядке id, поэтому параллельные пакетные изменения не взаимоблокируются.
+     * Отсутствующие id пропускаются.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Query("select new com.example.task.model.pojo.TaskStatusRow(t.id, t.author.id, t.assignee.id, t.status, t.priority) "
+            + "from Task t where t.id in :ids order by t.id")
+    List<TaskStatusRow> lockStatusRows(@Param("ids") Collection<Long> ids);
 
-    Page<Task> findByAssigneeIdAndPriority(Long assigneeId, Task.Priority priority, Pageable pageable);
+    /**
+     * Меняет статус задач одним UPDATE, минуя контекст персистентности; версии задач увеличиваются.
+     *
+     * @return количество обновленных строк
+     */
+    @Modifying
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Query("update Task t set t.status = :status, t.updatedAt = :updatedAt, t.version = t.version + 1 "
+            + "where t.id in :ids")
+    int updateStatus(@Param("ids") Collection<Long> ids, @Param("status") Task.Status status,
+                     @Param("updatedAt") LocalDateTime updatedAt);
 
-    Page<Task> findByAssigneeIdAndStatusAndPriority(Long assigneeId, Task.Status status, Task.Priority priority, Pageable pageable);
-}
\ No newline at end of file
+    /**
+     * Удаляет задачу одним DELETE, без загрузки сущности и каскада на комментарии:
+     * комментарии задачи удаляются до этого отдельным запросом.
+     *
+     * @return 1, если задача удалена, иначе 0
+     */
+    @Modifying
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Query("delete from Task t where t.id = :id")
+    int deleteRowById(@Param("id") Long id);
+}
@@ -3,7 +3,14 @@ package com.example.task.repository;
 
 import com.example.task.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
 
 
 /**
@@ -15,4 +22,41 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     User findByUsername(String username);
 
+    /**
+     * Пользователи с указанными именами одним запросом; отсутствующие имена пропускаются.
+     */
+    List<User> findByUsernameIn(Collection<String> usernames);
+
+    /**
+     * Заменяет хеш пароля, только если он не изменился с момента чтения.
+     *
+     * @return количество обновленных строк
+     */
+    @Modifying
+    @Transactional
+    @Query("update User u set u.password = :newPassword where u.id = :id and u.password = :oldPassword")
+    int updatePasswordIfUnchanged(@Param("id") Long id, @Param("oldPassword") String oldPassword,
+                                  @Param("newPassword") String newPassword);
+
+    /**
+     * Заменяет хеш пароля и увеличивает версию учетных данных, поэтому токены, выпущенные до смены пароля,
+     * перестают приниматься.
+     *
+     * @return количество обновленных строк
+     */
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("update User u set u.password = :password, u.credentialVersion = u.credentialVersion + 1 where u.id = :id")
+    int changePassword(@Param("id") Long id, @Param("password") String password);
+
+    /**
+     * Увеличивает версию учетных данных без смены пароля: все выпущенные токены пользователя перестают приниматься.
+     *
+     * @return количество обновленных строк
+     */
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("update User u set u.credentialVersion = u.credentialVersion + 1 where u.id = :id")
+    int incrementCredentialVersion(@Param("id") Long id);
+
 }
@@ -0,0 +1,48 @@
+package com.example.task.security;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.function.Consumer;
+
+/**
+ * Обертка над {@link PasswordEncoder}, выполняющая хеширование и проверку паролей
+ * в отдельном ограниченном пуле {@link PasswordHashingExecutor}.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+
+    private final PasswordHashingExecutor passwordHashingExecutor;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, PasswordHashingExecutor passwordHashingExecutor) {
+        this.delegate = delegate;
+        this.passwordHashingExecutor = passwordHashingExecutor;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return passwordHashingExecutor.execute("encode", () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return passwordHashingExecutor.execute("matches", () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Хеширует пароль в пуле без ожидания результата.
+     * Если пул перегружен, задача не выполняется.
+     *
+     * @param rawPassword пароль
+     * @param onEncoded   обработчик готового хеша, вызывается в потоке пула
+     * @return true, если задача принята пулом
+     */
+    public boolean encodeAsync(CharSequence rawPassword, Consumer<String> onEncoded) {
+        return passwordHashingExecutor.submit("encode", () -> onEncoded.accept(delegate.encode(rawPassword)));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
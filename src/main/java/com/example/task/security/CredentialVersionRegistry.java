@@ -0,0 +1,47 @@
+package com.example.task.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Реестр последних известных версий учетных данных пользователей.
+ * Позволяет принимать токен без обращения к базе, пока версия в токене совпадает с известной версией.
+ * Записи устаревают по времени, чтобы изменения, сделанные на других узлах, были подхвачены.
+ */
+@Component
+public class CredentialVersionRegistry {
+
+    private final Cache<Long, Integer> versions;
+
+    public CredentialVersionRegistry(@Value("${jwt.stateless-principal.max-size:100000}") long maxSize,
+                                     @Value("${jwt.stateless-principal.version-ttl:5m}") Duration versionTtl) {
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(versionTtl)
+                .build();
+    }
+
+    /**
+     * Возвращает известную версию учетных данных пользователя.
+     *
+     * @param userId идентификатор пользователя
+     * @return версия учетных данных или null, если версия неизвестна
+     */
+    public Integer getKnownVersion(Long userId) {
+        return versions.getIfPresent(userId);
+    }
+
+    /**
+     * Запоминает актуальную версию учетных данных пользователя, прочитанную из базы.
+     *
+     * @param userId  идентификатор пользователя
+     * @param version версия учетных данных
+     */
+    public void remember(Long userId, Integer version) {
+        versions.put(userId, version);
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.task.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SignatureException;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.impl.DefaultJwtBuilder;
+import io.jsonwebtoken.impl.DefaultJwtParser;
+import io.jsonwebtoken.impl.TextCodec;
+import io.jsonwebtoken.impl.crypto.JwtSignatureValidator;
+import io.jsonwebtoken.impl.crypto.JwtSigner;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Кодек JWT токенов, общий для {@link com.example.task.util.JwtTokenUtils} и фильтра запросов.
+ * Ключи HS256 вычисляются один раз при старте, экземпляры {@link Mac} переиспользуются в каждом потоке,
+ * а разборщик токенов настраивается один раз.
+ * <p>
+ * Токены подписываются активным ключом (jwt.secret) и получают его идентификатор (jwt.kid) в заголовке.
+ * Для ротации старые секреты перечисляются в jwt.verification-keys в виде {kid: 'secret'};
+ * ими токены только проверяются. Токены без kid проверяются активным ключом.
+ */
+@Component
+public class JwtCodec {
+
+    private static final SignatureAlgorithm ALGORITHM = SignatureAlgorithm.HS256;
+
+    private final String activeKeyId;
+
+    private final SecretKey activeKey;
+
+    private final Map<String, SecretKey> keysById = new HashMap<>();
+
+    private final Map<Key, ThreadLocal<Mac>> macs = new IdentityHashMap<>();
+
+    private final JwtParser parser;
+
+    public JwtCodec(@Value("${jwt.secret}") String secret,
+                    @Value("${jwt.kid:default}") String activeKeyId,
+                    @Value("#{${jwt.verification-keys:{:}}}") Map<String, String> verificationKeys) {
+        verificationKeys.forEach((keyId, keySecret) -> register(keyId, keySecret));
+        this.activeKeyId = activeKeyId;
+        this.activeKey = register(activeKeyId, secret);
+        this.parser = new CodecJwtParser().setSigningKeyResolver(new SigningKeyResolverAdapter() {
+            @Override
+            public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                return resolveKey(header.getKeyId());
+            }
+        });
+    }
+
+    /**
+     * Создает и подписывает JWT токен активным ключом.
+     *
+     * @param claims     дополнительные утверждения
+     * @param subject    субъект токена
+     * @param issuedAt   время выпуска
+     * @param expiration время истечения срока действия
+     * @return подписанный JWT токен
+     */
+    public String encode(Map<String, Object> claims, String subject, Date issuedAt, Date expiration) {
+        return new CodecJwtBuilder()
+                .setHeaderParam(JwsHeader.KEY_ID, activeKeyId)
+                .setClaims(new HashMap<>(claims))
+                .setSubject(subject)
+                .setIssuedAt(issuedAt)
+                .setExpiration(expiration)
+                .signWith(ALGORITHM, activeKey)
+                .compact();
+    }
+
+    /**
+     * Проверяет подпись JWT токена и возвращает его утверждения.
+     *
+     * @param token JWT токен
+     * @return утверждения токена
+     */
+    public Claims decode(String token) {
+        return parser.parseClaimsJws(token).getBody();
+    }
+
+    private SecretKey register(String keyId, String secret) {
+        SecretKey key = new SecretKeySpec(TextCodec.BASE64.decode(secret), ALGORITHM.getJcaName());
+        keysById.put(keyId, key);
+        macs.put(key, ThreadLocal.withInitial(() -> newMac(key)));
+        return key;
+    }
+
+    private Key resolveKey(String keyId) {
+        if (keyId == null) {
+            return activeKey;
+        }
+        SecretKey key = keysById.get(keyId);
+        if (key == null) {
+            throw new SignatureException("Неизвестный ключ подписи: " + keyId);
+        }
+        return key;
+    }
+
+    private byte[] mac(Key key, String jwtWithoutSignature) {
+        Mac mac = macs.get(key).get();
+        return mac.doFinal(jwtWithoutSignature.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static Mac newMac(Key key) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM.getJcaName());
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Не удалось инициализировать " + ALGORITHM.getJcaName(), e);
+        }
+    }
+
+    private boolean isOwnKey(SignatureAlgorithm algorithm, Key key) {
+        return algorithm == ALGORITHM && macs.containsKey(key);
+    }
+
+    private class CodecJwtParser extends DefaultJwtParser {
+        @Override
+        protected JwtSignatureValidator createSignatureValidator(SignatureAlgorithm algorithm, Key key) {
+            if (!isOwnKey(algorithm, key)) {
+                return super.createSignatureValidator(algorithm, key);
+            }
+            return (jwtWithoutSignature, base64UrlEncodedSignature) -> MessageDigest.isEqual(
+                    mac(key, jwtWithoutSignature), TextCodec.BASE64URL.decode(base64UrlEncodedSignature));
+        }
+    }
+
+    private class CodecJwtBuilder extends DefaultJwtBuilder {
+        @Override
+        protected JwtSigner createSigner(SignatureAlgorithm algorithm, Key key) {
+            if (!isOwnKey(algorithm, key)) {
+                return super.createSigner(algorithm, key);
+            }
+            return jwtWithoutSignature -> TextCodec.BASE64URL.encode(mac(key, jwtWithoutSignature));
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.task.security;
+
+import com.example.task.exception.custom.PasswordHashingRejectedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Отдельный ограниченный пул потоков для хеширования и проверки паролей.
+ * BCrypt намеренно дорогой, поэтому всплеск логинов не должен занимать все потоки Tomcat:
+ * при заполненной очереди задача сразу отклоняется с {@link PasswordHashingRejectedException} (HTTP 429).
+ */
+@Component
+public class PasswordHashingExecutor {
+
+    private final ThreadPoolExecutor executor;
+
+    private final MeterRegistry meterRegistry;
+
+    public PasswordHashingExecutor(@Value("${password.hashing.pool-size:0}") int poolSize,
+                                   @Value("${password.hashing.queue-capacity:64}") int queueCapacity,
+                                   MeterRegistry meterRegistry) {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        BlockingQueue<Runnable> queue = queueCapacity > 0 ? new ArrayBlockingQueue<>(queueCapacity) : new SynchronousQueue<>();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, queue, runnable -> {
+            Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+        this.meterRegistry = meterRegistry;
+        ExecutorServiceMetrics.monitor(meterRegistry, executor, "password.hashing");
+    }
+
+    /**
+     * Выполняет операцию с паролем в пуле и ждет ее результата.
+     *
+     * @param operation название операции для метрик (encode, matches)
+     * @param work      операция с паролем
+     * @param <T>       тип результата
+     * @return результат операции
+     * @throws PasswordHashingRejectedException если пул и очередь заполнены
+     */
+    public <T> T execute(String operation, Supplier<T> work) {
+        Timer timer = Timer.builder("password.hash.latency")
+                .tag("operation", operation)
+                .register(meterRegistry);
+        Future<T> future;
+        try {
+            future = executor.submit(() -> timer.record(work));
+        } catch (RejectedExecutionException e) {
+            throw new PasswordHashingRejectedException("Сервер перегружен, повторите попытку позже");
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Ожидание хеширования пароля прервано", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Ставит операцию с паролем в очередь без ожидания результата.
+     *
+     * @param operation название операции для метрик
+     * @param work      операция с паролем
+     * @return true, если операция принята; false, если пул перегружен
+     */
+    public boolean submit(String operation, Runnable work) {
+        Timer timer = Timer.builder("password.hash.latency")
+                .tag("operation", operation)
+                .register(meterRegistry);
+        try {
+            executor.execute(() -> timer.record(work));
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
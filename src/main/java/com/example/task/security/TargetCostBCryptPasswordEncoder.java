@@ -0,0 +1,32 @@
+package com.example.task.security;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCryptPasswordEncoder с настраиваемой целевой стоимостью (work factor).
+ * В отличие от стандартной реализации, считает устаревшим любой хеш, стоимость которого
+ * отличается от целевой, поэтому стоимость можно как повышать, так и понижать.
+ */
+public class TargetCostBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+    private static final Pattern BCRYPT_PREFIX = Pattern.compile("\\A\\$2[abxy]?\\$(\\d\\d)\\$");
+
+    private final int targetCost;
+
+    public TargetCostBCryptPasswordEncoder(int targetCost) {
+        super(targetCost);
+        this.targetCost = targetCost;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_PREFIX.matcher(encodedPassword);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) != targetCost;
+    }
+}
@@ -1,7 +1,11 @@
 package com.example.task.service;
 
 
+import com.example.task.model.User;
+import com.example.task.security.CredentialVersionRegistry;
+import com.example.task.security.CustomUserDetails;
 import com.example.task.util.JwtTokenUtils;
+import com.example.task.util.validator.UserValidator;
 
 import lombok.SneakyThrows;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,12 +13,18 @@ import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 /**
  * Сервис аутентификации пользователя и генерации JWT-токена.
+ * Смена пароля и отзыв токенов увеличивают версию учетных данных пользователя: токены с прежней версией
+ * больше не принимаются, на этом узле сразу, на остальных - после устаревания их записи о версии
+ * в {@link CredentialVersionRegistry}.
  */
 @Service
 public class AuthService {
@@ -25,15 +35,33 @@ public class AuthService {
 
     private final UserDetailsService userDetailsService;
 
+    private final PasswordRehashService passwordRehashService;
+
+    private final UserService userService;
+
+    private final UserValidator userValidator;
+
+    private final PasswordEncoder passwordEncoder;
+
+    private final CredentialVersionRegistry credentialVersionRegistry;
+
     @Autowired
-    public AuthService(AuthenticationManager authenticationManager, JwtTokenUtils jwtTokenUtils, UserDetailsService userDetailsService) {
+    public AuthService(AuthenticationManager authenticationManager, JwtTokenUtils jwtTokenUtils, UserDetailsService userDetailsService,
+                       PasswordRehashService passwordRehashService, UserService userService, UserValidator userValidator,
+                       PasswordEncoder passwordEncoder, CredentialVersionRegistry credentialVersionRegistry) {
         this.authenticationManager = authenticationManager;
         this.jwtTokenUtils = jwtTokenUtils;
         this.userDetailsService = userDetailsService;
+        this.passwordRehashService = passwordRehashService;
+        this.userService = userService;
+        this.userValidator = userValidator;
+        this.passwordEncoder = passwordEncoder;
+        this.credentialVersionRegistry = credentialVersionRegistry;
     }
 
     /**
      * Аутентифицирует пользователя и генерирует JWT-токен для него.
+     * Если хеш пароля посчитан с устаревшей стоимостью BCrypt, он асинхронно пересчитывается.
      *
      * @param username имя пользователя
      * @param password пароль пользователя
@@ -42,9 +70,52 @@ public class AuthService {
     public String authenticateAndGetToken(String username, String password) {
         authenticate(username, password);
         final UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+        if (userDetails instanceof CustomUserDetails customUserDetails) {
+            passwordRehashService.rehashIfNeeded(customUserDetails.user(), password);
+        }
         return jwtTokenUtils.generateToken(userDetails);
     }
 
+    /**
+     * Меняет пароль текущего пользователя после проверки старого пароля.
+     *
+     * @param oldPassword текущий пароль
+     * @param newPassword новый пароль
+     * @return JWT-токен с новой версией учетных данных; ранее выпущенные токены отозваны
+     * @throws BadCredentialsException если текущий пароль неверен
+     */
+    public String changePassword(String oldPassword, String newPassword) {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        authenticate(username, oldPassword);
+        userValidator.validatePassword(newPassword);
+        User user = currentUser(username);
+        return issueToken(userService.changePassword(user, passwordEncoder.encode(newPassword)));
+    }
+
+    /**
+     * Отзывает все выпущенные токены текущего пользователя, включая токен этого запроса.
+     *
+     * @return новый JWT-токен
+     */
+    public String revokeTokens() {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        return issueToken(userService.revokeCredentials(currentUser(username)));
+    }
+
+    private User currentUser(String username) {
+        return userService.findCredentials(username)
+                .orElseThrow(() -> new UsernameNotFoundException("Юзер с именем " + username + " не найден"));
+    }
+
+    /**
+     * Запоминает новую версию учетных данных, чтобы токены с прежней версией отклонялись на этом узле сразу,
+     * и выпускает токен с новой версией.
+     */
+    private String issueToken(User user) {
+        credentialVersionRegistry.remember(user.getId(), user.getCredentialVersion());
+        return jwtTokenUtils.generateToken(new CustomUserDetails(user));
+    }
+
     /**
      * Выполняет аутентификацию пользователя.
      *
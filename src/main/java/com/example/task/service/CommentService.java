@@ -1,78 +1,104 @@
 package com.example.task.service;
 
+import com.example.task.cache.TaskCache;
 import com.example.task.exception.custom.CommentNotFoundException;
 import com.example.task.exception.custom.TaskNotFoundException;
 import com.example.task.model.Comment;
 import com.example.task.model.Task;
 import com.example.task.model.User;
+import com.example.task.model.pojo.CommentView;
 import com.example.task.repository.CommentRepository;
 import com.example.task.repository.TaskRepository;
-import com.example.task.repository.UserRepository;
+import com.example.task.util.http.ETags;
 import lombok.SneakyThrows;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.nio.file.AccessDeniedException;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 /**
  * Сервис для работы с комментариями.
+ * Изменения выполняются в одной транзакции, чтения из нескольких запросов - в читающей.
  */
 @Service
 public class CommentService {
 
     private final CommentRepository commentRepository;
     private final TaskRepository taskRepository;
-    private final UserRepository userRepository;
     private final UserService userService;
+    private final TaskCache taskCache;
 
     @Autowired
-    public CommentService(CommentRepository commentRepository, TaskRepository taskRepository, UserRepository userRepository, UserService userService) {
+    public CommentService(CommentRepository commentRepository, TaskRepository taskRepository, UserService userService,
+                          TaskCache taskCache) {
         this.commentRepository = commentRepository;
         this.taskRepository = taskRepository;
-        this.userRepository = userRepository;
         this.userService = userService;
+        this.taskCache = taskCache;
     }
 
     /**
      * Добавляет комментарий к задаче.
+     * Текст проверяется до обращения к базе, задача загружается без связей.
      *
      * @param taskId      идентификатор задачи, к которой добавляется комментарий
      * @param requestData данные комментария, включающие текст комментария
      * @throws TaskNotFoundException    если задача с указанным идентификатором не найдена
      * @throws IllegalArgumentException если текст комментария пустой или превышает 140 символов
      */
+    @Transactional
     public void addComment(Long taskId, Map<String, Object> requestData) {
-        Task task = taskRepository.findById(taskId)
-                .orElseThrow(() -> new TaskNotFoundException("Задача не найдена id " + taskId));
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
         String content = (String) requestData.get("content");
-        if (content.length() == 0 || content.length() > 140) {
+        if (content == null || content.length() == 0 || content.length() > 140) {
             throw new IllegalArgumentException("Комментарий должен не должен быть пустым или более 140 символов!");
         }
-        User author = userRepository.findByUsername(username);
+        Task task = taskRepository.findById(taskId)
+                .orElseThrow(() -> new TaskNotFoundException("Задача не найдена id " + taskId));
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        User author = userService.findByUsername(username)
+                .orElseThrow(() -> new UsernameNotFoundException("Юзер " + username + " не найден"));
         Comment comment = Comment.builder()
                 .task(task)
                 .author(author)
                 .content(content)
                 .build();
         commentRepository.save(comment);
+        taskCache.invalidate(taskId);
     }
 
     /**
      * Получает список комментариев по идентификатору задачи.
      *
      * @param taskId идентификатор задачи
-     * @return список комментариев, привязанных к задаче
+     * @return список представлений комментариев, привязанных к задаче
      * @throws TaskNotFoundException если задача с указанным идентификатором не найдена
      */
-    public List<Comment> getCommentsByTask(Long taskId) {
-        Task task = taskRepository.findById(taskId)
+    @Transactional(readOnly = true)
+    public List<CommentView> getCommentsByTask(Long taskId) {
+        if (!taskRepository.existsById(taskId)) {
+            throw new TaskNotFoundException("Задача не найдена id " + taskId);
+        }
+        return commentRepository.findViewsByTaskId(taskId);
+    }
+
+    /**
+     * Вычисляет ETag списка комментариев задачи по количеству и последнему идентификатору комментария,
+     * не загружая сами комментарии.
+     *
+     * @param taskId идентификатор задачи
+     * @return строгий ETag списка комментариев
+     * @throws TaskNotFoundException если задача с указанным идентификатором не найдена
+     */
+    public String getCommentsETag(Long taskId) {
+        return commentRepository.findVersionByTaskId(taskId)
+                .map(version -> ETags.forComments(taskId, version))
                 .orElseThrow(() -> new TaskNotFoundException("Задача не найдена id " + taskId));
-        return commentRepository.findByTask(task);
     }
 
     /**
@@ -83,15 +109,17 @@ public class CommentService {
      * @throws UsernameNotFoundException если текущий пользователь не найден
      */
     @SneakyThrows
+    @Transactional
     public void deleteComment(Long commentId) {
         Comment comment = commentRepository.findById(commentId)
                 .orElseThrow(() -> new CommentNotFoundException("Комментарий не найден id " + commentId));
         String username = SecurityContextHolder.getContext().getAuthentication().getName();
         User currentUser = userService.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("Юзер " + username + " не найден"));
-        if (!comment.getAuthor().equals(currentUser)) {
+        if (!Objects.equals(comment.getAuthor().getId(), currentUser.getId())) {
             throw new AccessDeniedException("Нельзя удалять чужие комментарии!");
         }
         commentRepository.delete(comment);
+        taskCache.invalidate(comment.getTask().getId());
     }
 }
@@ -0,0 +1,39 @@
+package com.example.task.service;
+
+import com.example.task.model.User;
+import com.example.task.security.BoundedPasswordEncoder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Сервис постепенного перевода хешей паролей на целевую стоимость BCrypt.
+ */
+@Service
+public class PasswordRehashService {
+
+    private final BoundedPasswordEncoder passwordEncoder;
+
+    private final UserService userService;
+
+    @Autowired
+    public PasswordRehashService(BoundedPasswordEncoder passwordEncoder, UserService userService) {
+        this.passwordEncoder = passwordEncoder;
+        this.userService = userService;
+    }
+
+    /**
+     * Асинхронно пересчитывает хеш пароля, если его стоимость отличается от целевой.
+     * Вызывается только после успешной проверки пароля. Если пул хеширования перегружен,
+     * пересчет пропускается и будет выполнен при следующем входе.
+     *
+     * @param user        аутентифицированный пользователь
+     * @param rawPassword пароль, прошедший проверку
+     * @return true, если пересчет запланирован
+     */
+    public boolean rehashIfNeeded(User user, String rawPassword) {
+        if (!passwordEncoder.upgradeEncoding(user.getPassword())) {
+            return false;
+        }
+        return passwordEncoder.encodeAsync(rawPassword, newPassword -> userService.updatePasswordHash(user, newPassword));
+    }
+}
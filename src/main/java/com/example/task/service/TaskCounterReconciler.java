@@ -0,0 +1,56 @@
+package com.example.task.service;
+
+import com.example.task.model.TaskCounter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Периодическая сверка счетчиков задач с таблицей задач.
+ * Счетчики могут разойтись с задачами после изменений в обход сервиса (ручные правки, миграции данных);
+ * найденные расхождения исправляются и учитываются в метрике tasks.counters.drift.
+ * Задание запускается на каждом узле, но сверку выполняет только узел, взявший блокировку
+ * в {@link TaskCounterService#reconcile()}.
+ */
+@Slf4j
+@Component
+public class TaskCounterReconciler {
+
+    private final TaskCounterService taskCounterService;
+
+    private final Counter driftCounter;
+
+    @Autowired
+    public TaskCounterReconciler(TaskCounterService taskCounterService, MeterRegistry meterRegistry) {
+        this.taskCounterService = taskCounterService;
+        this.driftCounter = Counter.builder("tasks.counters.drift")
+                .description("Счетчики задач, исправленные при сверке")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Пересчитывает счетчики по таблице задач и исправляет расхождения.
+     *
+     * @return количество исправленных счетчиков; 0, если сверку выполняет другой узел
+     */
+    @Scheduled(cron = "${tasks.counters.reconcile-cron:0 30 3 * * *}")
+    public int reconcile() {
+        Optional<Map<TaskCounter.Key, Long>> reconciled = taskCounterService.reconcile();
+        if (reconciled.isEmpty()) {
+            log.info("Сверка счетчиков задач уже выполняется на другом узле");
+            return 0;
+        }
+        Map<TaskCounter.Key, Long> drift = reconciled.get();
+        if (!drift.isEmpty()) {
+            driftCounter.increment(drift.size());
+            log.warn("Исправлено счетчиков задач: {}", drift.size());
+        }
+        return drift.size();
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.task.service;
+
+import com.example.task.model.Task;
+import com.example.task.model.TaskCounter;
+import com.example.task.model.pojo.TaskDimensions;
+import com.example.task.model.pojo.TaskStats;
+import com.example.task.repository.TaskCounterRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Сервис счетчиков задач для сводной статистики по авторам и исполнителям.
+ * Счетчики меняются приращениями в транзакции изменения задачи, поэтому чтение статистики
+ * не зависит от количества задач.
+ */
+@Service
+public class TaskCounterService {
+
+    private final TaskCounterRepository taskCounterRepository;
+
+    private final UserService userService;
+
+    @Autowired
+    public TaskCounterService(TaskCounterRepository taskCounterRepository, UserService userService) {
+        this.taskCounterRepository = taskCounterRepository;
+        this.userService = userService;
+    }
+
+    /**
+     * Учитывает изменение задачи в счетчиках автора и исполнителя.
+     * Если поля, по которым ведутся счетчики, не изменились, запрос к базе не выполняется.
+     *
+     * @param from поля задачи до изменения или null для новой задачи
+     * @param to   поля задачи после изменения или null для удаленной задачи
+     */
+    public void move(TaskDimensions from, TaskDimensions to) {
+        Map<TaskCounter.Key, Long> deltas = new HashMap<>();
+        collect(deltas, from, -1);
+        collect(deltas, to, 1);
+        deltas.values().removeIf(delta -> delta == 0);
+        taskCounterRepository.applyDeltas(deltas);
+    }
+
+    /**
+     * Учитывает в счетчиках новые задачи одним запросом, сколько бы задач ни было создано.
+     *
+     * @param created поля созданных задач
+     */
+    public void countCreated(Collection<TaskDimensions> created) {
+        Map<TaskCounter.Key, Long> deltas = new HashMap<>();
+        created.forEach(task -> collect(deltas, task, 1));
+        taskCounterRepository.applyDeltas(deltas);
+    }
+
+    /**
+     * Учитывает в счетчиках изменение нескольких задач одним запросом.
+     * Приращения складываются, поэтому порядок задач в коллекциях не важен.
+     *
+     * @param from поля задач до изменения
+     * @param to   поля тех же задач после изменения
+     */
+    public void moveAll(Collection<TaskDimensions> from, Collection<TaskDimensions> to) {
+        Map<TaskCounter.Key, Long> deltas = new HashMap<>();
+        from.forEach(task -> collect(deltas, task, -1));
+        to.forEach(task -> collect(deltas, task, 1));
+        deltas.values().removeIf(delta -> delta == 0);
+        taskCounterRepository.applyDeltas(deltas);
+    }
+
+    /**
+     * Получает количество задач автора по статусам и приоритетам.
+     *
+     * @param authorId идентификатор автора
+     * @return статистика задач автора
+     * @throws UsernameNotFoundException если автор с указанным идентификатором не найден
+     */
+    @Transactional(readOnly = true)
+    public TaskStats getAuthorStats(Long authorId) {
+        return stats(TaskCounter.Scope.AUTHOR, authorId);
+    }
+
+    /**
+     * Получает количество задач исполнителя по статусам и приоритетам.
+     *
+     * @param assigneeId идентификатор исполнителя
+     * @return статистика задач исполнителя
+     * @throws UsernameNotFoundException если исполнитель с указанным идентификатором не найден
+     */
+    @Transactional(readOnly = true)
+    public TaskStats getAssigneeStats(Long assigneeId) {
+        return stats(TaskCounter.Scope.ASSIGNEE, assigneeId);
+    }
+
+    /**
+     * Сравнивает счетчики с количеством задач, посчитанным заново по таблице задач.
+     * Оба чтения выполняются на одном снимке базы, поэтому изменения задач, закоммиченные
+     * во время сверки, не принимаются за расхождение.
+     *
+     * @return поправки к счетчикам, при которых они совпадут с таблицей задач; пустая карта, если расхождений нет
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public Map<TaskCounter.Key, Long> findDrift() {
+        Map<TaskCounter.Key, Long> drift = new HashMap<>();
+        taskCounterRepository.countByAuthor().forEach(counter -> drift.merge(key(counter), counter.getTaskCount(), Long::sum));
+        taskCounterRepository.countByAssignee().forEach(counter -> drift.merge(key(counter), counter.getTaskCount(), Long::sum));
+        taskCounterRepository.findAll().forEach(counter -> drift.merge(key(counter), -counter.getTaskCount(), Long::sum));
+        drift.values().removeIf(delta -> delta == 0);
+        return drift;
+    }
+
+    /**
+     * Сверяет счетчики с таблицей задач и применяет найденные поправки в одной транзакции на основной базе.
+     * Сверка выполняется под advisory-блокировкой, поэтому при одновременном запуске на нескольких узлах
+     * поправки применяет только один из них; иначе каждая поправка была бы прибавлена столько раз, сколько узлов.
+     * Узел, не взявший блокировку, сверку пропускает. Поправки складываются с приращениями параллельных
+     * изменений задач, поэтому сами счетчики на время сверки не блокируются.
+     *
+     * @return примененные поправки или пустой Optional, если сверку сейчас выполняет другой узел
+     */
+    @Transactional(isolation = Isolation.REPEATABLE_READ)
+    public Optional<Map<TaskCounter.Key, Long>> reconcile() {
+        if (!taskCounterRepository.tryAdvisoryXactLock(TaskCounterRepository.RECONCILE_LOCK_KEY)) {
+            return Optional.empty();
+        }
+        Map<TaskCounter.Key, Long> drift = findDrift();
+        taskCounterRepository.applyDeltas(drift);
+        return Optional.of(drift);
+    }
+
+    private TaskStats stats(TaskCounter.Scope scope, Long userId) {
+        userService.findById(userId)
+                .orElseThrow(() -> new UsernameNotFoundException("Юзер не найден id " + userId));
+
+        Map<Task.Status, Map<Task.Priority, Long>> counts = new EnumMap<>(Task.Status.class);
+        for (Task.Status status : Task.Status.values()) {
+            Map<Task.Priority, Long> byPriority = new EnumMap<>(Task.Priority.class);
+            for (Task.Priority priority : Task.Priority.values()) {
+                byPriority.put(priority, 0L);
+            }
+            counts.put(status, byPriority);
+        }
+        long total = 0;
+        for (TaskCounter counter : taskCounterRepository.findByScopeAndUserId(scope, userId)) {
+            counts.get(counter.getStatus()).put(counter.getPriority(), counter.getTaskCount());
+            total += counter.getTaskCount();
+        }
+        return new TaskStats(userId, counts, total);
+    }
+
+    private static void collect(Map<TaskCounter.Key, Long> deltas, TaskDimensions task, long delta) {
+        if (task == null) {
+            return;
+        }
+        deltas.merge(new TaskCounter.Key(TaskCounter.Scope.AUTHOR, task.authorId(), task.status(), task.priority()),
+                delta, Long::sum);
+        if (task.assigneeId() != null) {
+            deltas.merge(new TaskCounter.Key(TaskCounter.Scope.ASSIGNEE, task.assigneeId(), task.status(), task.priority()),
+                    delta, Long::sum);
+        }
+    }
+
+    private static TaskCounter.Key key(TaskCounter counter) {
+        return new TaskCounter.Key(counter.getScope(), counter.getUserId(), counter.getStatus(), counter.getPriority());
+    }
+}
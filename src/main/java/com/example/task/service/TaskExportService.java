@@ -0,0 +1,71 @@
+package com.example.task.service;
+
+import com.example.task.model.pojo.TaskView;
+import com.example.task.repository.TaskRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.stream.Stream;
+
+/**
+ * Сервис потоковой выгрузки всех задач в формате NDJSON.
+ * Строки читаются курсором JDBC порциями по tasks.export.fetch-size и сразу пишутся в ответ,
+ * поэтому потребление памяти не зависит от размера таблицы.
+ */
+@Service
+public class TaskExportService {
+
+    private static final String EXPORT_QUERY = TaskRepository.VIEW_SELECT + " order by t.id";
+
+    private final EntityManager entityManager;
+
+    private final ObjectMapper objectMapper;
+
+    private final int fetchSize;
+
+    @Autowired
+    public TaskExportService(EntityManager entityManager, ObjectMapper objectMapper,
+                             @Value("${tasks.export.fetch-size:500}") int fetchSize) {
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Записывает все задачи в поток, по одному JSON объекту на строку.
+     *
+     * @param outputStream поток ответа
+     * @throws IOException в случае ошибки записи
+     */
+    @Transactional(readOnly = true)
+    public void exportTasks(OutputStream outputStream) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(TaskView.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+             Stream<TaskView> rows = entityManager.createQuery(EXPORT_QUERY, TaskView.class)
+                     .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                     .getResultStream()) {
+            rows.forEach(row -> {
+                try {
+                    writer.writeValue(generator, row);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -1,42 +1,102 @@
 package com.example.task.service;
 
+import com.example.task.cache.TaskCache;
+import com.example.task.datasource.PrimaryReads;
+import com.example.task.exception.custom.TaskConflictException;
 import com.example.task.exception.custom.TaskNotFoundException;
+import com.example.task.exception.custom.TaskPreconditionFailedException;
 import com.example.task.model.Task;
 import com.example.task.model.User;
+import com.example.task.model.pojo.CursorPage;
+import com.example.task.model.pojo.TaskBatchResult;
+import com.example.task.model.pojo.TaskDimensions;
+import com.example.task.model.pojo.TaskFilter;
+import com.example.task.model.pojo.TaskSearchHit;
+import com.example.task.model.pojo.TaskStatusBatchResult;
+import com.example.task.model.pojo.TaskStatusChange;
+import com.example.task.model.pojo.TaskStatusRow;
+import com.example.task.model.pojo.TaskView;
+import com.example.task.repository.CommentRepository;
 import com.example.task.repository.TaskRepository;
+import com.example.task.util.http.ETags;
+import com.example.task.util.pagination.TaskCursor;
+import com.example.task.util.pagination.TaskSearchCursor;
+import com.example.task.util.pagination.TaskSort;
+import com.example.task.util.validator.TaskStatusTransitions;
 import com.example.task.util.validator.TaskValidator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.SneakyThrows;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.nio.file.AccessDeniedException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 /**
  * Сервис для работы с задачами.
+ * <p>
+ * Каждое изменение выполняется в одной транзакции: все его запросы идут через одно соединение,
+ * а текущий пользователь и исполнитель находятся один раз за вызов. Чтения из нескольких запросов
+ * выполняются в читающей транзакции, в которой Hibernate не проверяет загруженные сущности на изменения.
+ * Чтения, которые обслуживаются из {@link TaskCache}, транзакцию не открывают, чтобы попадание в кэш
+ * не занимало соединение; при промахе запрос выполняется в читающей транзакции репозитория.
  */
 @Service
 public class TaskService {
 
     private final TaskRepository taskRepository;
 
+    private final CommentRepository commentRepository;
+
     private final UserService userService;
 
     private final TaskValidator taskValidator;
 
+    private final TaskCache taskCache;
+
+    private final TaskCounterService taskCounterService;
+
+    private final TaskStatusTransitions taskStatusTransitions;
+
+    private final Counter staleUpdates;
+
+    private final Counter concurrentUpdates;
+
+    private final Counter concurrentStatusChanges;
+
     @Autowired
-    public TaskService(TaskRepository taskRepository, UserService userService, TaskValidator taskValidator) {
+    public TaskService(TaskRepository taskRepository, CommentRepository commentRepository, UserService userService,
+                       TaskValidator taskValidator, TaskCache taskCache, TaskCounterService taskCounterService,
+                       TaskStatusTransitions taskStatusTransitions, MeterRegistry meterRegistry) {
         this.taskRepository = taskRepository;
+        this.commentRepository = commentRepository;
         this.userService = userService;
         this.taskValidator = taskValidator;
+        this.taskCache = taskCache;
+        this.taskCounterService = taskCounterService;
+        this.taskStatusTransitions = taskStatusTransitions;
+        this.staleUpdates = conflictCounter(meterRegistry, "update", "if-match");
+        this.concurrentUpdates = conflictCounter(meterRegistry, "update", "concurrent");
+        this.concurrentStatusChanges = conflictCounter(meterRegistry, "status", "concurrent");
     }
 
     /**
@@ -48,57 +108,120 @@ public class TaskService {
      * @throws IllegalArgumentException  если данные задачи некорректны
      * @throws UsernameNotFoundException если автор или исполнитель не найдены
      */
+    @Transactional
     public void createTask(Map<String, Object> requestData) {
         taskValidator.validateTask(requestData);
 
-        String title = (String) requestData.get("title");
-        String description = (String) requestData.get("description");
-
-        String statusStr = (String) requestData.get("status");
-        Task.Status status = Task.Status.valueOf(statusStr.toUpperCase());
-
-        String priorityStr = (String) requestData.get("priority");
-        Task.Priority priority = Task.Priority.valueOf(priorityStr.toUpperCase());
-
         String username = SecurityContextHolder.getContext().getAuthentication().getName();
         User author = userService.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("Юзер с именем " + username + " не найден"));
 
         String assigneeUsername = (String) requestData.get("assignee");
         User assignee = (assigneeUsername != null) ? userService.findByUsername(assigneeUsername)
-                .orElseThrow(() -> new UsernameNotFoundException("Юзер с именем " + assigneeUsername + " не найден")) : null;
+                .orElseThrow(() -> new IllegalArgumentException("Неверное имя исполнителя!")) : null;
 
-        Task task = Task.builder()
-                .title(title)
-                .description(description)
-                .status(status)
-                .priority(priority)
-                .author(author)
-                .assignee(assignee)
-                .build();
+        Task task = buildTask(requestData, author, assignee);
 
         taskRepository.save(task);
+        taskCounterService.move(null, TaskDimensions.of(task));
+    }
+
+    /**
+     * Создает пакет задач в одной транзакции.
+     * Размер пакета проверяется до обращения к базе. Автор определяется один раз, все упомянутые исполнители
+     * находятся одним запросом, задачи проверяются за один проход и вставляются пачками вместе с одним
+     * обновлением счетчиков.
+     * Если часть задач не прошла проверку, в режиме {@link TaskBatchResult.Mode#ALL_OR_NOTHING}
+     * не создается ни одна задача, а в режиме {@link TaskBatchResult.Mode#BEST_EFFORT} создаются остальные.
+     * Ошибка базы при вставке откатывает весь пакет в любом режиме.
+     *
+     * @param items данные задач в порядке запроса
+     * @param mode  что делать с задачами без ошибок, если в пакете есть ошибки
+     * @return результаты по каждой задаче пакета
+     * @throws IllegalArgumentException  если пакет пуст или слишком велик
+     * @throws UsernameNotFoundException если автор не найден
+     */
+    @Transactional
+    public TaskBatchResult createTasks(List<Map<String, Object>> items, TaskBatchResult.Mode mode) {
+        taskValidator.validateBatchSize(items);
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        User author = userService.findByUsername(username)
+                .orElseThrow(() -> new UsernameNotFoundException("Юзер с именем " + username + " не найден"));
+
+        Set<String> assigneeUsernames = new HashSet<>();
+        for (Map<String, Object> item : items) {
+            if (item != null && item.get("assignee") instanceof String assignee) {
+                assigneeUsernames.add(assignee);
+            }
+        }
+        Map<String, User> assignees = userService.findAllByUsername(assigneeUsernames);
+        Map<Integer, String> errors = taskValidator.validateTasks(items, assignees.keySet());
+
+        List<TaskBatchResult.Item> results = new ArrayList<>(items.size());
+        if (!errors.isEmpty() && mode == TaskBatchResult.Mode.ALL_OR_NOTHING) {
+            for (int i = 0; i < items.size(); i++) {
+                results.add(new TaskBatchResult.Item(i, null, errors.getOrDefault(i, "Не создана: в пакете есть ошибки")));
+            }
+            return new TaskBatchResult(mode, 0, errors.size(), results);
+        }
+
+        Map<Integer, Task> tasks = new LinkedHashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            if (!errors.containsKey(i)) {
+                Map<String, Object> item = items.get(i);
+                String assigneeUsername = (String) item.get("assignee");
+                tasks.put(i, buildTask(item, author, assigneeUsername != null ? assignees.get(assigneeUsername) : null));
+            }
+        }
+        taskRepository.saveAll(tasks.values());
+        taskCounterService.countCreated(tasks.values().stream().map(TaskDimensions::of).toList());
+
+        for (int i = 0; i < items.size(); i++) {
+            Task task = tasks.get(i);
+            results.add(task != null
+                    ? new TaskBatchResult.Item(i, task.getId(), null)
+                    : new TaskBatchResult.Item(i, null, errors.get(i)));
+        }
+        return new TaskBatchResult(mode, tasks.size(), errors.size(), results);
     }
 
     /**
      * Обновляет существующую задачу.
      * Этот метод выполняет частичное обновление полей задачи. Проверяется, что текущий пользователь
      * является автором задачи перед её обновлением.
+     * <p>
+     * Задача обновляется с оптимистической блокировкой: UPDATE срабатывает, только если версия задачи
+     * не изменилась с момента чтения, поэтому из параллельных обновлений одной задачи выигрывает одно.
+     * Если передан ifMatch, задача обновляется, только когда её текущий ETag указан в нем.
+     * Новый статус проверяется по тем же правилам {@link TaskStatusTransitions}, что и в {@link #changeStatus(Long, Map)}.
+     * Конфликты учитываются в метрике tasks.conflicts с тегами operation и reason.
      *
      * @param id          идентификатор задачи, которую нужно обновить
      * @param taskDetails карта данных для обновления задачи, включая заголовок, описание, статус, приоритет и исполнителя
+     * @param ifMatch     значение заголовка If-Match или null, если клиент не передал его
+     * @return ETag задачи после обновления
+     * @throws TaskPreconditionFailedException если задача изменилась после получения клиентом ETag из ifMatch
+     * @throws TaskConflictException           если переход в новый статус не разрешен или задачу параллельно
+     *                                         изменил другой запрос, а ifMatch не передан
      */
     @SneakyThrows
-    public void updateTask(Long id, Map<String, Object> taskDetails) {
-        Task task = getTaskById(id);
+    @Transactional
+    public String updateTask(Long id, Map<String, Object> taskDetails, String ifMatch) {
+        Task task = taskRepository.findWithAssigneeById(id)
+                .orElseThrow(() -> new TaskNotFoundException("Задача не найдена id " + id));
+        TaskDimensions before = TaskDimensions.of(task);
 
         String username = SecurityContextHolder.getContext().getAuthentication().getName();
         User currentUser = userService.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("Юзер с именем " + username + " не найден"));
 
-        if (!task.getAuthor().equals(currentUser)) {
+        if (!Objects.equals(task.getAuthor().getId(), currentUser.getId())) {
             throw new AccessDeniedException("Нельзя менять чужие задачи!");
         }
+        if (ifMatch != null && !ETags.matches(ifMatch, ETags.forTask(id, task.getVersion()))) {
+            staleUpdates.increment();
+            throw new TaskPreconditionFailedException("Задача изменена после получения ETag!");
+        }
 
         Task updatedTask = Task.builder()
                 .title((String) taskDetails.get("title"))
@@ -110,6 +233,11 @@ public class TaskService {
                 .build();
 
         taskValidator.validateUpdateTask(updatedTask);
+        if (updatedTask.getStatus() != task.getStatus()
+                && !taskStatusTransitions.isAllowed(task.getStatus(), updatedTask.getStatus())) {
+            throw new TaskConflictException("Нельзя перевести задачу из статуса " + task.getStatus()
+                    + " в статус " + updatedTask.getStatus() + "!");
+        }
 
         if (taskDetails.containsKey("title")) {
             task.setTitle(updatedTask.getTitle());
@@ -131,70 +259,123 @@ public class TaskService {
             task.setAssignee(updatedTask.getAssignee());
         }
 
-        taskRepository.save(task);
+        Task saved;
+        try {
+            saved = taskRepository.saveAndFlush(task);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            if (ifMatch != null) {
+                staleUpdates.increment();
+                throw new TaskPreconditionFailedException("Задача изменена после получения ETag!");
+            }
+            concurrentUpdates.increment();
+            throw new TaskConflictException("Задача уже изменена другим запросом!");
+        }
+        taskCounterService.move(before, TaskDimensions.of(task));
+        taskCache.invalidate(id);
+        return ETags.forTask(id, saved.getVersion());
+    }
+
+    /**
+     * Получает представление задачи по её идентификатору.
+     * Представления кэшируются в {@link TaskCache}; при промахе выбираются только колонки задачи,
+     * автор, исполнитель и комментарии не загружаются. Промах читается с основной базы, а не с реплики,
+     * чтобы кэш не хранил отстающее состояние задачи.
+     *
+     * @param id идентификатор задачи
+     * @return представление задачи с указанным идентификатором
+     * @throws TaskNotFoundException если задача с указанным идентификатором не найдена
+     */
+    public TaskView getTaskView(Long id) {
+        return taskCache.findById(id,
+                        key -> PrimaryReads.call(() -> taskRepository.findViewById(key).orElse(null)))
+                .orElseThrow(() -> new TaskNotFoundException("Задача не найдена id " + id));
     }
 
     /**
-     * Получает задачу по её идентификатору.
+     * Вычисляет ETag задачи без загрузки её представления.
+     * Если представление уже в кэше, ETag берется из него, иначе с основной базы читается только версия задачи.
      *
      * @param id идентификатор задачи
-     * @return задача с указанным идентификатором
+     * @return строгий ETag задачи
      * @throws TaskNotFoundException если задача с указанным идентификатором не найдена
      */
-    public Task getTaskById(Long id) {
-        return taskRepository.findById(id)
+    public String getTaskETag(Long id) {
+        return taskCache.getIfPresent(id)
+                .map(ETags::forTask)
+                .or(() -> PrimaryReads.call(() -> taskRepository.findVersionById(id))
+                        .map(version -> ETags.forTask(id, version)))
                 .orElseThrow(() -> new TaskNotFoundException("Задача не найдена id " + id));
     }
 
     /**
      * Получает все задачи.
      *
-     * @return список всех задач
+     * @return список представлений всех задач
      */
-    public List<Task> getAllTasks() {
-        return taskRepository.findAll();
+    @Transactional(readOnly = true)
+    public List<TaskView> getAllTasks() {
+        return taskRepository.findAllViews();
     }
 
     /**
      * Удаляет задачу по её идентификатору.
      * Этот метод проверяет, что текущий пользователь является автором задачи перед её удалением.
+     * Ни задача, ни её комментарии не загружаются: строка задачи блокируется выборкой нужных полей,
+     * после чего комментарии и задача удаляются двумя DELETE. Блокировка не дает добавить комментарий
+     * к задаче, пока она удаляется.
      *
      * @param id идентификатор задачи, которую нужно удалить
      * @throws TaskNotFoundException     если задача с указанным идентификатором не найдена
      * @throws UsernameNotFoundException если текущий пользователь не найден
      */
     @SneakyThrows
+    @Transactional
     public void deleteTask(Long id) {
-        Task task = getTaskById(id);
+        TaskStatusRow task = taskRepository.lockStatusRows(List.of(id)).stream()
+                .findFirst()
+                .orElseThrow(() -> new TaskNotFoundException("Задача не найдена id " + id));
         String username = SecurityContextHolder.getContext().getAuthentication().getName();
         User currentUser = userService.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("Юзер с именем " + username + " не найден"));
-        if (!task.getAuthor().equals(currentUser)) {
+        if (!Objects.equals(task.authorId(), currentUser.getId())) {
             throw new AccessDeniedException("Нельзя удалять чужие задачи!");
         }
-        taskRepository.delete(task);
+        commentRepository.deleteByTaskId(id);
+        taskRepository.deleteRowById(id);
+        taskCounterService.move(task.dimensions(task.status()), null);
+        taskCache.invalidate(id);
     }
 
     /**
      * Изменяет статус задачи.
-     * Этот метод проверяет, что текущий пользователь является автором или исполнителем задачи перед
-     * изменением её статуса.
+     * Этот метод проверяет, что текущий пользователь является автором или исполнителем задачи
+     * и что переход из текущего статуса разрешен {@link TaskStatusTransitions}.
+     * Статус меняется условным UPDATE, который срабатывает, только если задача все еще в прочитанном статусе,
+     * поэтому из параллельных запросов на одну задачу (например, двое берут одну задачу в работу) выигрывает
+     * один, а остальные получают {@link TaskConflictException} и учитываются в метрике tasks.conflicts.
+     * Сущность задачи не загружается. Если задача уже в этом статусе, ничего не меняется,
+     * как и для {@code UNCHANGED} в {@link #changeStatuses(TaskStatusChange)}.
      *
      * @param id          идентификатор задачи, для которой нужно изменить статус
      * @param taskDetails карта данных, содержащая новый статус задачи
      * @throws TaskNotFoundException     если задача с указанным идентификатором не найдена
      * @throws UsernameNotFoundException если текущий пользователь не найден
      * @throws IllegalArgumentException  если значение статуса некорректно
+     * @throws TaskConflictException     если переход не разрешен или статус задачи уже изменен другим запросом
      */
     @SneakyThrows
+    @Transactional
     public void changeStatus(Long id, Map<String, Object> taskDetails) {
-        Task task = getTaskById(id);
+        TaskStatusRow task = taskRepository.findStatusRowById(id)
+                .orElseThrow(() -> new TaskNotFoundException("Задача не найдена id " + id));
 
         String username = SecurityContextHolder.getContext().getAuthentication().getName();
         User currentUser = userService.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("Юзер с именем " + username + " не найден"));
 
-        if (!task.getAssignee().equals(currentUser) || !task.getAuthor().equals(currentUser)) {
+        boolean isAuthor = Objects.equals(task.authorId(), currentUser.getId());
+        boolean isAssignee = Objects.equals(task.assigneeId(), currentUser.getId());
+        if (!isAuthor && !isAssignee) {
             throw new AccessDeniedException("Нельзя менять статус чужих задач!");
         }
 
@@ -205,85 +386,220 @@ public class TaskService {
         } catch (IllegalArgumentException e) {
             throw new IllegalArgumentException("Неверное значение статуса!");
         }
-        task.setStatus(status);
-        taskRepository.save(task);
+        if (status == task.status()) {
+            return;
+        }
+        if (!taskStatusTransitions.isAllowed(task.status(), status)) {
+            throw new TaskConflictException("Нельзя перевести задачу из статуса " + task.status() + " в статус " + status + "!");
+        }
+        if (taskRepository.compareAndSetStatus(id, task.status(), status, currentUser.getId(), LocalDateTime.now()) == 0) {
+            concurrentStatusChanges.increment();
+            throw new TaskConflictException("Статус задачи уже изменен другим запросом!");
+        }
+        taskCounterService.move(task.dimensions(task.status()), task.dimensions(status));
+        taskCache.invalidate(id);
     }
 
     /**
-     * Получает задачи по автору с возможностью фильтрации по статусу и приоритету.
+     * Изменяет статус нескольких задач.
+     * Вместо загрузки и сохранения каждой задачи выполняются три запроса на весь пакет: выборка
+     * владельцев задач с блокировкой строк, один UPDATE статуса и одно обновление счетчиков.
+     * Правила те же, что и в {@link #changeStatus(Long, Map)}: статус меняет автор или исполнитель задачи
+     * и только по разрешенному переходу. Строки заблокированы до конца транзакции, поэтому условный UPDATE не нужен.
+     * Задачи, которые нельзя изменить, не прерывают пакет, а получают свой итог в ответе.
      *
-     * @param authorId идентификатор автора задач
-     * @param status   статус задачи (может быть null)
-     * @param priority приоритет задачи (может быть null)
-     * @param page     номер страницы для пагинации
-     * @param size     количество задач на странице
-     * @return список задач, соответствующих критериям, или сообщение об ошибке, если задачи не найдены
-     * @throws UsernameNotFoundException если автор с указанным идентификатором не найден
+     * @param change идентификаторы задач и новый статус
+     * @return итог по каждой задаче в порядке запроса
+     * @throws UsernameNotFoundException если текущий пользователь не найден
+     * @throws IllegalArgumentException  если список задач пуст или слишком велик, либо статус неверен
      */
-    public ResponseEntity<?> getTasksByAuthor(Long authorId, Task.Status status, Task.Priority priority, int page, int size) {
-        userService.findById(authorId)
-                .orElseThrow(() -> new UsernameNotFoundException("Юзер не найден id " + authorId));
-        Pageable pageable = PageRequest.of(page, size);
-        Page<Task> tasks;
-
-        if (status != null && priority != null) {
-            tasks = taskRepository.findByAuthorIdAndStatusAndPriority(authorId, status, priority, pageable);
-        } else if (status != null) {
-            tasks = taskRepository.findByAuthorIdAndStatus(authorId, status, pageable);
-        } else if (priority != null) {
-            tasks = taskRepository.findByAuthorIdAndPriority(authorId, priority, pageable);
-        } else {
-            tasks = taskRepository.findByAuthorId(authorId, pageable);
+    @Transactional
+    public TaskStatusBatchResult changeStatuses(TaskStatusChange change) {
+        taskValidator.validateStatusChange(change);
+        Task.Status status = Task.Status.valueOf(change.status().toUpperCase());
+
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        User currentUser = userService.findByUsername(username)
+                .orElseThrow(() -> new UsernameNotFoundException("Юзер с именем " + username + " не найден"));
+
+        Set<Long> ids = new LinkedHashSet<>(change.ids());
+        Map<Long, TaskStatusRow> rows = new HashMap<>();
+        taskRepository.lockStatusRows(ids).forEach(row -> rows.put(row.id(), row));
+
+        List<TaskStatusBatchResult.Item> items = new ArrayList<>(ids.size());
+        List<Long> updatedIds = new ArrayList<>();
+        List<TaskDimensions> before = new ArrayList<>();
+        List<TaskDimensions> after = new ArrayList<>();
+        for (Long id : ids) {
+            TaskStatusRow row = rows.get(id);
+            TaskStatusBatchResult.Outcome outcome;
+            if (row == null) {
+                outcome = TaskStatusBatchResult.Outcome.NOT_FOUND;
+            } else if (!Objects.equals(row.authorId(), currentUser.getId())
+                    && !Objects.equals(row.assigneeId(), currentUser.getId())) {
+                outcome = TaskStatusBatchResult.Outcome.FORBIDDEN;
+            } else if (row.status() == status) {
+                outcome = TaskStatusBatchResult.Outcome.UNCHANGED;
+            } else if (!taskStatusTransitions.isAllowed(row.status(), status)) {
+                outcome = TaskStatusBatchResult.Outcome.NOT_ALLOWED;
+            } else {
+                outcome = TaskStatusBatchResult.Outcome.UPDATED;
+                updatedIds.add(id);
+                before.add(row.dimensions(row.status()));
+                after.add(row.dimensions(status));
+            }
+            items.add(new TaskStatusBatchResult.Item(id, outcome));
+        }
+
+        if (!updatedIds.isEmpty()) {
+            taskRepository.updateStatus(updatedIds, status, LocalDateTime.now());
+            taskCounterService.moveAll(before, after);
+            taskCache.invalidateAll(updatedIds);
         }
+        return new TaskStatusBatchResult(status, updatedIds.size(), items);
+    }
+
+    /**
+     * Получает задачи, соответствующие фильтру, с постраничным выводом.
+     * Если в фильтре указаны автор или исполнитель, сначала проверяется их существование.
+     *
+     * @param filter условия выборки
+     * @param page   номер страницы для пагинации
+     * @param size   количество задач на странице
+     * @param sort   сортировка вида "поле[,asc|desc]" (может быть null, тогда по дате создания)
+     * @param count  подсчитывать ли общее количество задач; при false возвращается {@link Slice} без запроса COUNT
+     * @return страница задач или сообщение об ошибке, если задачи не найдены
+     * @throws UsernameNotFoundException если автор или исполнитель с указанным идентификатором не найден
+     * @throws IllegalArgumentException  если параметр сортировки некорректен
+     */
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> getTasks(TaskFilter filter, int page, int size, String sort, boolean count) {
+        requireUsers(filter);
+        Pageable pageable = PageRequest.of(page, size, TaskSort.parse(sort));
+        Slice<TaskView> tasks = count
+                ? taskRepository.findByFilter(filter, pageable)
+                : taskRepository.findSliceByFilter(filter, pageable);
 
         if (tasks.isEmpty()) {
-            String message = (status != null && priority != null)
-                    ? "Задач у автора с таким статусом и приоритетом не найдено"
-                    : (status != null ? "Задач у автора с таким статусом не найдено"
-                    : (priority != null ? "Задач у автора с таким приоритетом не найдено"
-                    : "Задач у автора не найдено"));
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(message);
+            return notFound(filter);
         }
 
         return ResponseEntity.ok(tasks);
     }
 
     /**
-     * Получает задачи по исполнителю с возможностью фильтрации по статусу и приоритету.
+     * Получает задачи, соответствующие фильтру, курсорной (keyset) пагинацией в порядке (created_at, id).
+     * Вместо OFFSET выбираются задачи строго после позиции из курсора, поэтому стоимость
+     * запроса не зависит от глубины страницы.
      *
-     * @param assigneeId идентификатор исполнителя задач
-     * @param status     статус задачи (может быть null)
-     * @param priority   приоритет задачи (может быть null)
-     * @param page       номер страницы для пагинации
-     * @param size       количество задач на странице
-     * @return список задач, соответствующих критериям, или сообщение об ошибке, если задачи не найдены
-     * @throws UsernameNotFoundException если исполнитель с указанным идентификатором не найден
+     * @param filter условия выборки
+     * @param cursor курсор из предыдущего ответа (пустой для первой страницы)
+     * @param size   количество задач на странице
+     * @return страница задач с курсором следующей страницы или сообщение об ошибке, если задачи не найдены
+     * @throws UsernameNotFoundException если автор или исполнитель с указанным идентификатором не найден
+     * @throws IllegalArgumentException  если курсор поврежден
      */
-    public ResponseEntity<?> getTasksByAssignee(Long assigneeId, Task.Status status, Task.Priority priority, int page, int size) {
-        userService.findById(assigneeId)
-                .orElseThrow(() -> new UsernameNotFoundException("Юзер не найден id " + assigneeId));
-        Pageable pageable = PageRequest.of(page, size);
-        Page<Task> tasks;
-
-        if (status != null && priority != null) {
-            tasks = taskRepository.findByAssigneeIdAndStatusAndPriority(assigneeId, status, priority, pageable);
-        } else if (status != null) {
-            tasks = taskRepository.findByAssigneeIdAndStatus(assigneeId, status, pageable);
-        } else if (priority != null) {
-            tasks = taskRepository.findByAssigneeIdAndPriority(assigneeId, priority, pageable);
-        } else {
-            tasks = taskRepository.findByAssigneeId(assigneeId, pageable);
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> getTasksAfter(TaskFilter filter, String cursor, int size) {
+        requireUsers(filter);
+        if (size < 1) {
+            throw new IllegalArgumentException("Размер страницы должен быть больше нуля!");
         }
+        List<TaskView> tasks = taskRepository.findByFilterAfter(filter, TaskCursor.decode(cursor), size + 1);
 
         if (tasks.isEmpty()) {
-            String message = (status != null && priority != null)
-                    ? "Задач у исполнителя с таким статусом и приоритетом не найдено"
-                    : (status != null ? "Задач у исполнителя с таким статусом не найдено"
-                    : (priority != null ? "Задач у исполнителя с таким приоритетом не найдено"
-                    : "Задач у исполнителя не найдено"));
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(message);
+            return notFound(filter);
         }
 
-        return ResponseEntity.ok(tasks);
+        return ResponseEntity.ok(toCursorPage(tasks, size));
+    }
+
+    /**
+     * Ищет задачи по тексту заголовка и описания с учетом фильтра.
+     * Задачи упорядочены по убыванию релевантности, страницы выдаются по курсору (rank, id).
+     *
+     * @param text   поисковый запрос: слова, "фразы в кавычках", or, -исключение
+     * @param filter условия выборки
+     * @param cursor курсор из предыдущего ответа (пустой или null для первой страницы)
+     * @param size   количество задач на странице
+     * @return страница задач с курсором следующей страницы или сообщение об ошибке, если задачи не найдены
+     * @throws UsernameNotFoundException если автор или исполнитель с указанным идентификатором не найден
+     * @throws IllegalArgumentException  если запрос пустой или курсор поврежден
+     */
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> searchTasks(String text, TaskFilter filter, String cursor, int size) {
+        if (text == null || text.isBlank()) {
+            throw new IllegalArgumentException("Поисковый запрос не должен быть пустым!");
+        }
+        requireUsers(filter);
+        if (size < 1) {
+            throw new IllegalArgumentException("Размер страницы должен быть больше нуля!");
+        }
+        List<TaskSearchHit> hits = taskRepository.searchByText(text, filter, TaskSearchCursor.decode(cursor), size + 1);
+
+        if (hits.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Задач по запросу не найдено");
+        }
+
+        List<TaskSearchHit> content = hits.size() > size ? hits.subList(0, size) : hits;
+        String nextCursor = null;
+        if (hits.size() > size) {
+            TaskSearchHit last = content.get(size - 1);
+            nextCursor = new TaskSearchCursor(last.rank(), last.task().id()).encode();
+        }
+        return ResponseEntity.ok(new CursorPage<>(content.stream().map(TaskSearchHit::task).toList(), nextCursor));
+    }
+
+    /**
+     * Собирает новую задачу из проверенных данных запроса.
+     */
+    private static Task buildTask(Map<String, Object> requestData, User author, User assignee) {
+        return Task.builder()
+                .title((String) requestData.get("title"))
+                .description((String) requestData.get("description"))
+                .status(Task.Status.valueOf(((String) requestData.get("status")).toUpperCase()))
+                .priority(Task.Priority.valueOf(((String) requestData.get("priority")).toUpperCase()))
+                .author(author)
+                .assignee(assignee)
+                .build();
+    }
+
+    private void requireUsers(TaskFilter filter) {
+        if (filter.authorId() != null) {
+            userService.findById(filter.authorId())
+                    .orElseThrow(() -> new UsernameNotFoundException("Юзер не найден id " + filter.authorId()));
+        }
+        if (filter.assigneeId() != null) {
+            userService.findById(filter.assigneeId())
+                    .orElseThrow(() -> new UsernameNotFoundException("Юзер не найден id " + filter.assigneeId()));
+        }
+    }
+
+    private static CursorPage<TaskView> toCursorPage(List<TaskView> tasks, int size) {
+        if (tasks.size() <= size) {
+            return new CursorPage<>(tasks, null);
+        }
+        List<TaskView> content = tasks.subList(0, size);
+        TaskView last = content.get(size - 1);
+        return new CursorPage<>(content, new TaskCursor(last.createdAt(), last.id()).encode());
+    }
+
+    private static ResponseEntity<String> notFound(TaskFilter filter) {
+        String owner = filter.assigneeId() == null ? (filter.authorId() != null ? " у автора" : "")
+                : (filter.authorId() == null ? " у исполнителя" : " у автора и исполнителя");
+        String message = (filter.status() != null && filter.priority() != null)
+                ? "Задач" + owner + " с таким статусом и приоритетом не найдено"
+                : (filter.status() != null ? "Задач" + owner + " с таким статусом не найдено"
+                : (filter.priority() != null ? "Задач" + owner + " с таким приоритетом не найдено"
+                : "Задач" + owner + " не найдено"));
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(message);
+    }
+
+    private static Counter conflictCounter(MeterRegistry meterRegistry, String operation, String reason) {
+        return Counter.builder("tasks.conflicts")
+                .description("Изменения задач, отклоненные из-за параллельных изменений")
+                .tag("operation", operation)
+                .tag("reason", reason)
+                .register(meterRegistry);
     }
 }
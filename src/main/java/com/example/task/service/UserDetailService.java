@@ -2,7 +2,6 @@ package com.example.task.service;
 
 
 import com.example.task.model.User;
-import com.example.task.repository.UserRepository;
 import com.example.task.security.CustomUserDetails;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -11,15 +10,17 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 /**
- * Сервис для загрузки информации о пользователе из базы данных.
+ * Сервис для загрузки информации о пользователе для аутентификации.
+ * Пользователь читается из базы, а не из кэша пользователей: пароль и версия учетных данных
+ * должны быть актуальны и после их изменения на другом узле.
  */
 @Service
 public class UserDetailService implements UserDetailsService {
-    private final UserRepository userRepository;
+    private final UserService userService;
 
     @Autowired
-    public UserDetailService(UserRepository userRepository) {
-        this.userRepository = userRepository;
+    public UserDetailService(UserService userService) {
+        this.userService = userService;
     }
 
     /**
@@ -31,10 +32,8 @@ public class UserDetailService implements UserDetailsService {
      */
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByUsername(username);
-        if (user == null) {
-            throw new UsernameNotFoundException("Юзер с именем " + username + " не найден");
-        }
+        User user = userService.findCredentials(username)
+                .orElseThrow(() -> new UsernameNotFoundException("Юзер с именем " + username + " не найден"));
         return new CustomUserDetails(user);
     }
 }
\ No newline at end of file
@@ -1,25 +1,38 @@
 package com.example.task.service;
 
 
+import com.example.task.cache.UserCache;
 import com.example.task.model.User;
 import com.example.task.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 
 /**
  * Сервис для управления пользователями.
+ * Чтение пользователей идет через {@link UserCache}, любые изменения сбрасывают запись в кэше.
+ * Пользователи для проверки учетных данных читаются из базы ({@link #findCredentials}).
  */
 @Service
 public class UserService {
 
     private final UserRepository userRepository;
 
+    private final UserCache userCache;
+
     @Autowired
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, UserCache userCache) {
         this.userRepository = userRepository;
+        this.userCache = userCache;
     }
 
     /**
@@ -29,7 +42,7 @@ public class UserService {
      * @return объект пользователя, если найден, иначе null
      */
     public User getUserById(Long id) {
-        Optional<User> userOptional = userRepository.findById(id);
+        Optional<User> userOptional = findById(id);
         return userOptional.orElse(null);
     }
 
@@ -40,19 +53,96 @@ public class UserService {
      */
     public void createUser(User user) {
         userRepository.save(user);
+        userCache.invalidate(user);
+    }
+
+    /**
+     * Сохраняет пересчитанный хеш пароля пользователя.
+     * Пароль не меняется, поэтому версия учетных данных остается прежней.
+     *
+     * @param user        пользователь с текущим хешем пароля
+     * @param newPassword новый хеш того же пароля
+     */
+    public void updatePasswordHash(User user, String newPassword) {
+        userRepository.updatePasswordIfUnchanged(user.getId(), user.getPassword(), newPassword);
+        userCache.invalidate(user);
     }
 
+    /**
+     * Меняет пароль пользователя и увеличивает версию учетных данных.
+     * Обновление и чтение новой версии выполняются в одной транзакции на основной базе.
+     *
+     * @param user        пользователь
+     * @param newPassword хеш нового пароля
+     * @return пользователь с новой версией учетных данных
+     */
+    @Transactional
+    public User changePassword(User user, String newPassword) {
+        userRepository.changePassword(user.getId(), newPassword);
+        return reload(user);
+    }
+
+    /**
+     * Отзывает все выпущенные токены пользователя, увеличивая версию учетных данных.
+     *
+     * @param user пользователь
+     * @return пользователь с новой версией учетных данных
+     */
+    @Transactional
+    public User revokeCredentials(User user) {
+        userRepository.incrementCredentialVersion(user.getId());
+        return reload(user);
+    }
 
     public boolean isUsernameAvailable(String username) {
-        return userRepository.findByUsername(username) == null;
+        return findByUsername(username).isEmpty();
     }
 
     public Optional<User> findByUsername(String username) {
-        return Optional.ofNullable(userRepository.findByUsername(username));
+        return userCache.findByUsername(username, userRepository::findByUsername);
+    }
+
+    /**
+     * Находит пользователя для проверки учетных данных: всегда из базы, минуя кэш,
+     * потому что пароль или версия учетных данных могли измениться на другом узле.
+     * Прочитанный пользователь заменяет запись в кэше.
+     *
+     * @param username имя пользователя
+     * @return пользователь с актуальными паролем и версией учетных данных, если найден
+     */
+    public Optional<User> findCredentials(String username) {
+        User user = userRepository.findByUsername(username);
+        if (user != null) {
+            userCache.put(user);
+        }
+        return Optional.ofNullable(user);
+    }
+
+    /**
+     * Находит пользователей по именам: из кэша, а отсутствующих в нем - одним запросом к базе.
+     *
+     * @param usernames имена пользователей
+     * @return найденные пользователи по имени; несуществующих имен в карте нет
+     */
+    public Map<String, User> findAllByUsername(Collection<String> usernames) {
+        if (usernames.isEmpty()) {
+            return Map.of();
+        }
+        return userCache.findAllByUsername(usernames, missing -> userRepository.findByUsernameIn(Set.copyOf(missing)).stream()
+                .collect(Collectors.toMap(User::getUsername, Function.identity())));
     }
 
     public Optional<User> findById(Long id) {
-        return userRepository.findById(id);
+        return userCache.findById(id, key -> userRepository.findById(key).orElse(null));
+    }
+
+    /**
+     * Сбрасывает пользователя в кэше и читает его заново из базы.
+     */
+    private User reload(User user) {
+        userCache.invalidate(user);
+        return userRepository.findById(user.getId())
+                .orElseThrow(() -> new UsernameNotFoundException("Юзер с именем " + user.getUsername() + " не найден"));
     }
 
 }
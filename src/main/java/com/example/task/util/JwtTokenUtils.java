@@ -1,8 +1,8 @@
 package com.example.task.util;
 
+import com.example.task.security.CustomUserDetails;
+import com.example.task.security.JwtCodec;
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
@@ -14,30 +14,43 @@ import java.util.function.Function;
 
 /**
  * Компонент для работы с JWT токенами.
+ * Подпись и проверка выполняются общим {@link JwtCodec}.
  */
 @Component
 public class JwtTokenUtils {
 
-    @Value("${jwt.secret}")
-    private String secret;
-    @Value("${jwt.expiration}")
-    private Long expiration;
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String CREDENTIAL_VERSION_CLAIM = "cv";
+
+    private final JwtCodec jwtCodec;
+
+    private final Long expiration;
+
+    public JwtTokenUtils(JwtCodec jwtCodec, @Value("${jwt.expiration}") Long expiration) {
+        this.jwtCodec = jwtCodec;
+        this.expiration = expiration;
+    }
 
     /**
      * Генерация JWT токена на основе информации о пользователе.
+     * Для пользователей приложения в токен добавляются идентификатор и версия учетных данных,
+     * чтобы фильтр мог построить principal без обращения к базе.
      *
      * @param userDetails информация о пользователе
      * @return JWT токен
      */
     public String generateToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
+        if (userDetails instanceof CustomUserDetails customUserDetails) {
+            claims.put(USER_ID_CLAIM, customUserDetails.user().getId());
+            claims.put(CREDENTIAL_VERSION_CLAIM, customUserDetails.user().getCredentialVersion());
+        }
         return createToken(claims, userDetails.getUsername());
     }
 
     private String createToken(Map<String, Object> claims, String subject) {
-        return Jwts.builder().setClaims(claims).setSubject(subject).setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(SignatureAlgorithm.HS256, secret).compact();
+        long now = System.currentTimeMillis();
+        return jwtCodec.encode(claims, subject, new Date(now), new Date(now + expiration));
     }
 
     public String extractUsername(String token) {
@@ -60,7 +73,7 @@ public class JwtTokenUtils {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parser().setSigningKey(secret).parseClaimsJws(token).getBody();
+        return jwtCodec.decode(token);
     }
 
     private Boolean isTokenExpired(String token) {
@@ -0,0 +1,63 @@
+package com.example.task.util.http;
+
+import com.example.task.model.pojo.CommentsVersion;
+import com.example.task.model.pojo.TaskView;
+
+/**
+ * Строгие ETag для представлений задач и списков комментариев.
+ */
+public final class ETags {
+
+    private ETags() {
+    }
+
+    /**
+     * ETag задачи по её версии.
+     *
+     * @param id      идентификатор задачи
+     * @param version версия задачи
+     * @return ETag в кавычках
+     */
+    public static String forTask(Long id, Long version) {
+        return "\"t" + id + "-v" + version + "\"";
+    }
+
+    /**
+     * ETag представления задачи.
+     *
+     * @param task представление задачи
+     * @return ETag в кавычках
+     */
+    public static String forTask(TaskView task) {
+        return forTask(task.id(), task.version());
+    }
+
+    /**
+     * ETag списка комментариев задачи.
+     *
+     * @param taskId  идентификатор задачи
+     * @param version версия списка комментариев
+     * @return ETag в кавычках
+     */
+    public static String forComments(Long taskId, CommentsVersion version) {
+        return "\"c" + taskId + "-" + version.count() + "-" + (version.lastCommentId() != null ? version.lastCommentId() : 0) + "\"";
+    }
+
+    /**
+     * Проверяет заголовок If-Match строгим сравнением (RFC 9110, 13.1.1): слабые ETag не совпадают ни с чем,
+     * "*" совпадает с любым текущим ETag.
+     *
+     * @param ifMatch значение If-Match: "*" или список ETag через запятую
+     * @param etag    текущий ETag ресурса
+     * @return true, если текущий ETag указан в заголовке
+     */
+    public static boolean matches(String ifMatch, String etag) {
+        for (String candidate : ifMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.equals("*") || trimmed.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
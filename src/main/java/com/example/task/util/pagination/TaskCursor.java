@@ -0,0 +1,48 @@
+package com.example.task.util.pagination;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Позиция курсорной (keyset) пагинации задач: последняя выданная пара (created_at, id).
+ * Клиенту передается в виде непрозрачной строки.
+ *
+ * @param createdAt время создания последней выданной задачи
+ * @param id        идентификатор последней выданной задачи
+ */
+public record TaskCursor(LocalDateTime createdAt, Long id) {
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * Кодирует позицию в непрозрачную строку.
+     *
+     * @return курсор для передачи клиенту
+     */
+    public String encode() {
+        String raw = createdAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Восстанавливает позицию из строки курсора.
+     *
+     * @param cursor строка курсора, полученная от клиента
+     * @return позиция или null для пустого курсора (первая страница)
+     * @throws IllegalArgumentException если курсор поврежден
+     */
+    public static TaskCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            return new TaskCursor(LocalDateTime.parse(raw.substring(0, separator)), Long.valueOf(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Неверный курсор!");
+        }
+    }
+}
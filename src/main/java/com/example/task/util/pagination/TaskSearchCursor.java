@@ -0,0 +1,46 @@
+package com.example.task.util.pagination;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Позиция курсорной пагинации результатов полнотекстового поиска: последняя выданная пара (rank, id).
+ * Выдача упорядочена по убыванию релевантности, задачи с равной релевантностью - по возрастанию id.
+ *
+ * @param rank релевантность последней выданной задачи
+ * @param id   идентификатор последней выданной задачи
+ */
+public record TaskSearchCursor(float rank, Long id) {
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * Кодирует позицию в непрозрачную строку.
+     *
+     * @return курсор для передачи клиенту
+     */
+    public String encode() {
+        String raw = Float.toString(rank) + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Восстанавливает позицию из строки курсора.
+     *
+     * @param cursor строка курсора, полученная от клиента
+     * @return позиция или null для пустого курсора (первая страница)
+     * @throws IllegalArgumentException если курсор поврежден
+     */
+    public static TaskSearchCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            return new TaskSearchCursor(Float.parseFloat(raw.substring(0, separator)), Long.valueOf(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Неверный курсор!");
+        }
+    }
+}
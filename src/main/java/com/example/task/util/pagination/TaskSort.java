@@ -0,0 +1,47 @@
+package com.example.task.util.pagination;
+
+import org.springframework.data.domain.Sort;
+
+import java.util.Set;
+
+/**
+ * Сортировка списков задач.
+ * Допускаются только поля с подходящими индексами: created_at (V2) и updated_at (V9) по автору и исполнителю, а также id.
+ * Последним ключом всегда идет id, чтобы порядок был однозначным при совпадающих значениях.
+ */
+public final class TaskSort {
+
+    /**
+     * Порядок курсорной пагинации: (created_at, id).
+     */
+    public static final Sort KEYSET = Sort.by("createdAt", "id");
+
+    private static final Set<String> PROPERTIES = Set.of("createdAt", "updatedAt", "id");
+
+    private TaskSort() {
+    }
+
+    /**
+     * Разбирает параметр сортировки вида "поле[,asc|desc]".
+     *
+     * @param sort параметр сортировки (может быть null, тогда используется порядок по created_at)
+     * @return сортировка с id в качестве последнего ключа
+     * @throws IllegalArgumentException если поле или направление сортировки не поддерживаются
+     */
+    public static Sort parse(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return KEYSET;
+        }
+        String[] parts = sort.split(",");
+        String property = parts[0].trim();
+        if (!PROPERTIES.contains(property) || parts.length > 2) {
+            throw new IllegalArgumentException("Неверный параметр сортировки!");
+        }
+        Sort.Direction direction = parts.length == 2
+                ? Sort.Direction.fromOptionalString(parts[1].trim())
+                .orElseThrow(() -> new IllegalArgumentException("Неверный параметр сортировки!"))
+                : Sort.Direction.ASC;
+        Sort order = Sort.by(direction, property);
+        return property.equals("id") ? order : order.and(Sort.by(direction, "id"));
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.task.util.validator;
+
+import com.example.task.model.Task;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Допустимые переходы между статусами задачи.
+ * Всегда разрешены PENDING -> IN_PROGRESS и IN_PROGRESS -> COMPLETED; дополнительные переходы
+ * задаются свойством tasks.status.extra-transitions через запятую, например "IN_PROGRESS->PENDING,COMPLETED->IN_PROGRESS".
+ */
+@Component
+public class TaskStatusTransitions {
+
+    private final Map<Task.Status, Set<Task.Status>> allowed = new EnumMap<>(Task.Status.class);
+
+    /**
+     * @param extraTransitions дополнительные переходы вида "FROM->TO" через запятую
+     * @throws IllegalArgumentException если переход записан неверно или ведет в тот же статус
+     */
+    @Autowired
+    public TaskStatusTransitions(@Value("${tasks.status.extra-transitions:}") String extraTransitions) {
+        for (Task.Status status : Task.Status.values()) {
+            allowed.put(status, EnumSet.noneOf(Task.Status.class));
+        }
+        allowed.get(Task.Status.PENDING).add(Task.Status.IN_PROGRESS);
+        allowed.get(Task.Status.IN_PROGRESS).add(Task.Status.COMPLETED);
+
+        for (String transition : extraTransitions.split(",")) {
+            if (transition.isBlank()) {
+                continue;
+            }
+            String[] statuses = transition.split("->");
+            try {
+                if (statuses.length != 2) {
+                    throw new IllegalArgumentException();
+                }
+                Task.Status from = Task.Status.valueOf(statuses[0].trim().toUpperCase());
+                Task.Status to = Task.Status.valueOf(statuses[1].trim().toUpperCase());
+                if (from == to) {
+                    throw new IllegalArgumentException();
+                }
+                allowed.get(from).add(to);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Неверный переход статуса в tasks.status.extra-transitions: " + transition);
+            }
+        }
+        allowed.replaceAll((from, to) -> Collections.unmodifiableSet(to));
+    }
+
+    /**
+     * @param from текущий статус задачи
+     * @param to   новый статус задачи
+     * @return true, если задачу можно перевести из from в to
+     */
+    public boolean isAllowed(Task.Status from, Task.Status to) {
+        return allowed.get(from).contains(to);
+    }
+}
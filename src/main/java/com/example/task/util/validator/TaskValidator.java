@@ -1,13 +1,16 @@
 package com.example.task.util.validator;
 
 import com.example.task.model.Task;
-import com.example.task.model.User;
-import com.example.task.service.UserService;
-import org.springframework.beans.factory.annotation.Autowired;
+import com.example.task.model.pojo.TaskStatusChange;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.validation.annotation.Validated;
 
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 /**
  * Валидатор для проверки данных задач.
@@ -15,16 +18,110 @@ import java.util.Map;
 @Component
 @Validated
 public class TaskValidator {
-    @Autowired
-    private UserService userService;
+
+    /**
+     * Длина колонки tasks.title.
+     */
+    private static final int TITLE_MAX_LENGTH = 255;
+
+    @Value("${tasks.batch.max-size:1000}")
+    private int maxBatchSize;
+
+    @Value("${tasks.status-batch.max-size:10000}")
+    private int maxStatusBatchSize;
 
     /**
      * Проверяет данные задачи перед созданием.
+     * Существование исполнителя не проверяется: его находит сервис, которому исполнитель все равно нужен.
      *
      * @param requestData данные задачи в виде карты ключ-значение.
      * @throws IllegalArgumentException если одно из полей неверно или отсутствует.
      */
     public void validateTask(Map<String, Object> requestData) {
+        validateFields(requestData);
+    }
+
+    /**
+     * Проверяет размер пакета задач. Выполняется до поиска исполнителей, чтобы слишком большой пакет
+     * не превращался в запрос с неограниченным IN (...).
+     *
+     * @param items данные задач в порядке запроса
+     * @throws IllegalArgumentException если пакет пуст или больше tasks.batch.max-size
+     */
+    public void validateBatchSize(List<Map<String, Object>> items) {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("Пакет задач пуст!");
+        }
+        if (items.size() > maxBatchSize) {
+            throw new IllegalArgumentException("В пакете может быть не больше " + maxBatchSize + " задач!");
+        }
+    }
+
+    /**
+     * Проверяет пакет задач перед созданием за один проход.
+     * Исполнители не ищутся по одному: существующие имена передаются готовым набором.
+     *
+     * @param items     данные задач в порядке запроса
+     * @param assignees имена существующих исполнителей, упомянутых в пакете
+     * @return ошибки по позициям задач в пакете; пустая карта, если ошибок нет
+     * @throws IllegalArgumentException если пакет пуст или больше tasks.batch.max-size
+     */
+    public Map<Integer, String> validateTasks(List<Map<String, Object>> items, Set<String> assignees) {
+        validateBatchSize(items);
+
+        Map<Integer, String> errors = new HashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            Map<String, Object> item = items.get(i);
+            if (item == null) {
+                errors.put(i, "Задача не задана!");
+                continue;
+            }
+            try {
+                validateFields(item);
+                String assigneeUsername = (String) item.get("assignee");
+                if (assigneeUsername != null && !assignees.contains(assigneeUsername)) {
+                    throw new IllegalArgumentException("Неверное имя исполнителя!");
+                }
+            } catch (IllegalArgumentException e) {
+                errors.put(i, e.getMessage());
+            } catch (ClassCastException e) {
+                errors.put(i, "Поля задачи должны быть строками!");
+            }
+        }
+        return errors;
+    }
+
+    /**
+     * Проверяет запрос на смену статуса нескольких задач.
+     *
+     * @param change идентификаторы задач и новый статус
+     * @throws IllegalArgumentException если список задач пуст, больше tasks.status-batch.max-size
+     *                                  или содержит пустой id, либо статус неверен
+     */
+    public void validateStatusChange(TaskStatusChange change) {
+        if (change == null || change.ids() == null || change.ids().isEmpty()) {
+            throw new IllegalArgumentException("Список задач пуст!");
+        }
+        if (change.ids().size() > maxStatusBatchSize) {
+            throw new IllegalArgumentException("Статус можно менять не больше чем у " + maxStatusBatchSize + " задач сразу!");
+        }
+        if (change.ids().stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("Идентификатор задачи не задан!");
+        }
+        if (change.status() == null) {
+            throw new IllegalArgumentException("Должен быть статус!");
+        }
+        try {
+            Task.Status.valueOf(change.status().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Неверное значение статуса!");
+        }
+    }
+
+    /**
+     * Проверяет поля задачи, не обращаясь к базе.
+     */
+    private void validateFields(Map<String, Object> requestData) {
         String title = (String) requestData.get("title");
         String description = (String) requestData.get("description");
         String statusStr = (String) requestData.get("status");
@@ -35,6 +132,10 @@ public class TaskValidator {
             throw new IllegalArgumentException("Должен быть заголовок!");
         }
 
+        if (title.length() > TITLE_MAX_LENGTH) {
+            throw new IllegalArgumentException("Заголовок должен быть не длиннее " + TITLE_MAX_LENGTH + " символов!");
+        }
+
         if (description == null || description.isEmpty()) {
             throw new IllegalArgumentException("Должно быть описание!");
         }
@@ -62,13 +163,11 @@ public class TaskValidator {
         if (assigneeUsername != null && assigneeUsername.isEmpty()) {
             throw new IllegalArgumentException("Имя исполнителя не должно быть пустым!");
         }
-        if (assigneeUsername != null && userService.findByUsername(assigneeUsername).isEmpty()) {
-            throw new IllegalArgumentException("Неверное имя исполнителя!");
-        }
     }
 
     /**
      * Проверяет данные задачи перед обновлением.
+     * Исполнитель в taskDetails уже найден сервисом, поэтому повторно не ищется.
      *
      * @param taskDetails объект задачи с новыми данными.
      * @throws IllegalArgumentException если одно из полей неверно или отсутствует.
@@ -78,7 +177,6 @@ public class TaskValidator {
         String description = taskDetails.getDescription();
         Task.Status status = taskDetails.getStatus();
         Task.Priority priority = taskDetails.getPriority();
-        User assignee = taskDetails.getAssignee();
 
         if (title == null || title.isEmpty()) {
             throw new IllegalArgumentException("Должен быть заголовок!");
@@ -95,11 +193,5 @@ public class TaskValidator {
         if (priority == null) {
             throw new IllegalArgumentException("Должен быть приоритет!");
         }
-
-        if (assignee != null) {
-            if (userService.findByUsername(assignee.getUsername()).isEmpty()) {
-                throw new IllegalArgumentException("Имя исполнителя не существует!");
-            }
-        }
     }
 }
\ No newline at end of file
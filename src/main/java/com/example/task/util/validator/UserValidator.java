@@ -23,13 +23,23 @@ public class UserValidator {
      */
     public void validateUserData(String username, String password, UserService userService) {
         checkString(username, "Username", 3, 30);
-        checkString(password, "Password", 6, 50);
+        validatePassword(password);
 
         if (!userService.isUsernameAvailable(username)) {
             throw new RegistrationException("Имя пользователя уже занято");
         }
     }
 
+    /**
+     * Проверяет новый пароль пользователя.
+     *
+     * @param password пароль пользователя.
+     * @throws RegistrationException если пароль пустой или не соответствует требованиям по длине.
+     */
+    public void validatePassword(String password) {
+        checkString(password, "Password", 6, 50);
+    }
+
     /**
      * Проверяет строковое значение на пустоту и длину.
      *
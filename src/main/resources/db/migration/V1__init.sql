@@ -1,6 +1,3 @@
-DROP  TABLE users cascade ;
-DROP  TABLE comments cascade ;
-DROP  TABLE tasks cascade ;
 CREATE TABLE users (
                        id SERIAL PRIMARY KEY,
                        username VARCHAR(255) NOT NULL UNIQUE,
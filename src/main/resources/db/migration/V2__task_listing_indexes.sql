@@ -0,0 +1,9 @@
+-- Списки задач по автору/исполнителю фильтруются по статусу и сортируются по (created_at, id).
+CREATE INDEX idx_tasks_author_created ON tasks (author_id, created_at, id);
+CREATE INDEX idx_tasks_author_status_created ON tasks (author_id, status, created_at, id);
+
+-- Задачи без исполнителя в выборку по исполнителю не попадают.
+CREATE INDEX idx_tasks_assignee_created ON tasks (assignee_id, created_at, id)
+    WHERE assignee_id IS NOT NULL;
+CREATE INDEX idx_tasks_assignee_status_created ON tasks (assignee_id, status, created_at, id)
+    WHERE assignee_id IS NOT NULL;
@@ -0,0 +1,2 @@
+-- Комментарии выбираются по задаче в порядке id; версия списка (count, max(id)) читается из того же индекса.
+CREATE INDEX idx_comments_task ON comments (task_id, id);
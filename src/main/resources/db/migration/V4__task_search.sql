@@ -0,0 +1,10 @@
+-- Полнотекстовый поиск по задачам: вектор пересчитывается самой базой при изменении title/description.
+-- Совпадения в заголовке весят больше, чем в описании.
+ALTER TABLE tasks
+    ADD COLUMN search_vector tsvector
+        GENERATED ALWAYS AS (
+            setweight(to_tsvector('russian', title), 'A') ||
+            setweight(to_tsvector('russian', description), 'B')
+        ) STORED;
+
+CREATE INDEX idx_tasks_search ON tasks USING GIN (search_vector);
@@ -0,0 +1,21 @@
+-- Количество задач автора и исполнителя в разрезе статуса и приоритета.
+-- Счетчики меняются в той же транзакции, что и задачи, и заполняются по уже существующим задачам.
+CREATE TABLE task_counters (
+    scope      VARCHAR(10) NOT NULL,
+    user_id    BIGINT      NOT NULL,
+    status     VARCHAR(50) NOT NULL,
+    priority   VARCHAR(50) NOT NULL,
+    task_count BIGINT      NOT NULL,
+    PRIMARY KEY (scope, user_id, status, priority)
+);
+
+INSERT INTO task_counters (scope, user_id, status, priority, task_count)
+SELECT 'AUTHOR', author_id, status, priority, count(*)
+FROM tasks
+GROUP BY author_id, status, priority;
+
+INSERT INTO task_counters (scope, user_id, status, priority, task_count)
+SELECT 'ASSIGNEE', assignee_id, status, priority, count(*)
+FROM tasks
+WHERE assignee_id IS NOT NULL
+GROUP BY assignee_id, status, priority;
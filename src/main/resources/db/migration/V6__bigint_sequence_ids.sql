@@ -0,0 +1,20 @@
+-- Идентификаторы BIGINT, как в сущностях (Long), и последовательности с шагом 50:
+-- Hibernate берет из последовательности верхнюю границу блока и выдает 50 идентификаторов без обращения к базе,
+-- поэтому вставки можно отправлять пакетами. DEFAULT nextval у колонок остается для вставок через SQL.
+-- Смена типа колонок переписывает таблицы и их индексы под эксклюзивной блокировкой.
+ALTER SEQUENCE users_id_seq AS BIGINT INCREMENT BY 50;
+ALTER SEQUENCE tasks_id_seq AS BIGINT INCREMENT BY 50;
+ALTER SEQUENCE comments_id_seq AS BIGINT INCREMENT BY 50;
+
+ALTER TABLE users
+    ALTER COLUMN id TYPE BIGINT;
+
+ALTER TABLE tasks
+    ALTER COLUMN id TYPE BIGINT,
+    ALTER COLUMN author_id TYPE BIGINT,
+    ALTER COLUMN assignee_id TYPE BIGINT;
+
+ALTER TABLE comments
+    ALTER COLUMN id TYPE BIGINT,
+    ALTER COLUMN task_id TYPE BIGINT,
+    ALTER COLUMN author_id TYPE BIGINT;
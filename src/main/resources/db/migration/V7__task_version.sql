@@ -0,0 +1,3 @@
+-- Версия задачи для оптимистической блокировки: растет при каждом изменении строки и отдается клиентам как ETag.
+-- Существующие задачи начинают с версии 0.
+ALTER TABLE tasks ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,4 @@
+-- Версия учетных данных пользователя: попадает в JWT и сверяется с токеном при аутентификации.
+-- Отдельной миграцией, потому что базы, созданные прежним script.sql, принимаются за версию 1 и V1 на них не выполняется.
+-- IF NOT EXISTS - на базах, где колонка уже была создана прежней редакцией V1.
+ALTER TABLE users ADD COLUMN IF NOT EXISTS credential_version INTEGER NOT NULL DEFAULT 0;
@@ -0,0 +1,6 @@
+-- Списки задач по автору/исполнителю с сортировкой sort=updatedAt: (updated_at, id).
+-- Без фильтра по статусу: с ним подходящих строк у одного пользователя немного, и их сортировка дешевая.
+CREATE INDEX idx_tasks_author_updated ON tasks (author_id, updated_at, id);
+
+CREATE INDEX idx_tasks_assignee_updated ON tasks (assignee_id, updated_at, id)
+    WHERE assignee_id IS NOT NULL;
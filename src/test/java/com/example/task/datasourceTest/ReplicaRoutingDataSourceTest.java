@@ -0,0 +1,203 @@
+package com.example.task.datasourceTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.task.datasource.PrimaryReads;
+import com.example.task.datasource.RecentWriters;
+import com.example.task.datasource.ReplicaPool;
+import com.example.task.datasource.ReplicaRoutingDataSource;
+import com.example.task.datasource.WriteTrackingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Выбор базы для транзакций: основная база и реплики здесь - отдельные базы H2,
+ * в каждой из которых таблица node хранит имя базы, поэтому видно, куда ушел запрос.
+ * Отставание реплик задается напрямую: запрос отставания рассчитан на PostgreSQL.
+ */
+public class ReplicaRoutingDataSourceTest {
+
+    private static final Duration MAX_LAG = Duration.ofSeconds(5);
+
+    private final List<HikariDataSource> pools = new ArrayList<>();
+
+    private HikariDataSource primary;
+
+    private ReplicaPool replica1;
+
+    private ReplicaPool replica2;
+
+    private RecentWriters recentWriters;
+
+    @BeforeEach
+    public void setUp() {
+        primary = database("primary");
+        replica1 = new ReplicaPool("replica1", database("replica1"));
+        replica2 = new ReplicaPool("replica2", database("replica2"));
+        replica1.recordLag(Duration.ZERO);
+        replica2.recordLag(Duration.ZERO);
+        recentWriters = new RecentWriters(Duration.ofMinutes(1), 100);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+        pools.forEach(HikariDataSource::close);
+    }
+
+    @Test
+    public void testReadOnlyTransactionUsesReplica_ReadWriteUsesPrimary() {
+        Routing routing = routing(ReplicaRoutingDataSource.Selection.ROUND_ROBIN, replica1);
+
+        assertEquals("replica1", routing.read());
+        assertEquals("primary", routing.write());
+    }
+
+    @Test
+    public void testRoundRobinAlternatesReplicas() {
+        Routing routing = routing(ReplicaRoutingDataSource.Selection.ROUND_ROBIN, replica1, replica2);
+
+        assertEquals(List.of("replica1", "replica2", "replica1", "replica2"),
+                List.of(routing.read(), routing.read(), routing.read(), routing.read()));
+    }
+
+    @Test
+    public void testLeastConnectionsPrefersIdleReplica() throws Exception {
+        Routing routing = routing(ReplicaRoutingDataSource.Selection.LEAST_CONNECTIONS, replica1, replica2);
+
+        try (Connection busy = replica1.getConnection()) {
+            assertEquals(List.of("replica2", "replica2", "replica2"),
+                    List.of(routing.read(), routing.read(), routing.read()));
+        }
+    }
+
+    @Test
+    public void testLaggingReplicaIsSkipped() {
+        Routing routing = routing(ReplicaRoutingDataSource.Selection.ROUND_ROBIN, replica1, replica2);
+        replica1.recordLag(MAX_LAG.plusSeconds(1));
+
+        assertEquals(List.of("replica2", "replica2"), List.of(routing.read(), routing.read()));
+    }
+
+    @Test
+    public void testFallsBackToPrimaryWhenAllReplicasLagOrAreUnknown() {
+        Routing routing = routing(ReplicaRoutingDataSource.Selection.ROUND_ROBIN, replica1, replica2);
+        replica1.recordLag(MAX_LAG.plusSeconds(1));
+        replica2.recordLag(null);
+
+        assertEquals("primary", routing.read());
+    }
+
+    @Test
+    public void testUnreachableReplicaFallsBackToPrimaryAndIsExcluded() {
+        HikariDataSource broken = new HikariDataSource();
+        broken.setJdbcUrl("jdbc:h2:mem:missing;IFEXISTS=TRUE");
+        broken.setConnectionTimeout(250);
+        pools.add(broken);
+        ReplicaPool unreachable = new ReplicaPool("unreachable", broken);
+        unreachable.recordLag(Duration.ZERO);
+        Routing routing = routing(ReplicaRoutingDataSource.Selection.ROUND_ROBIN, unreachable, replica1);
+
+        assertEquals("primary", routing.read());
+        assertNull(unreachable.getLag());
+        assertEquals("replica1", routing.read());
+    }
+
+    @Test
+    public void testReadsStickToPrimaryAfterOwnCommittedWrite() {
+        Routing routing = routing(ReplicaRoutingDataSource.Selection.ROUND_ROBIN, replica1);
+        authenticate("alice");
+        routing.write();
+
+        assertEquals("primary", routing.read());
+
+        authenticate("bob");
+        assertEquals("replica1", routing.read());
+    }
+
+    @Test
+    public void testForcedPrimaryReadUsesPrimaryAndDoesNotStick() {
+        Routing routing = routing(ReplicaRoutingDataSource.Selection.ROUND_ROBIN, replica1);
+        authenticate("alice");
+
+        assertEquals("primary", PrimaryReads.call(routing::read));
+
+        assertEquals("replica1", routing.read());
+    }
+
+    @Test
+    public void testRolledBackWriteDoesNotStick() {
+        Routing routing = routing(ReplicaRoutingDataSource.Selection.ROUND_ROBIN, replica1);
+        authenticate("alice");
+
+        routing.readWrite.executeWithoutResult(status -> {
+            routing.jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+            status.setRollbackOnly();
+        });
+
+        assertEquals("replica1", routing.read());
+    }
+
+    private Routing routing(ReplicaRoutingDataSource.Selection selection, ReplicaPool... replicas) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(
+                new WriteTrackingDataSource(primary, recentWriters));
+        dataSource.setReadOnlyDataSource(new ReplicaRoutingDataSource(primary, List.of(replicas), selection,
+                MAX_LAG, recentWriters, new SimpleMeterRegistry()));
+        return new Routing(dataSource);
+    }
+
+    private HikariDataSource database(String name) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:" + name + System.nanoTime());
+        dataSource.setMaximumPoolSize(4);
+        pools.add(dataSource);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE node (name VARCHAR(20))");
+        jdbcTemplate.update("INSERT INTO node VALUES (?)", name);
+        return dataSource;
+    }
+
+    private static void authenticate(String username) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(username, null, List.of()));
+    }
+
+    private static class Routing {
+
+        private final JdbcTemplate jdbcTemplate;
+
+        private final TransactionTemplate readOnly;
+
+        private final TransactionTemplate readWrite;
+
+        Routing(LazyConnectionDataSourceProxy dataSource) {
+            DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+            this.jdbcTemplate = new JdbcTemplate(dataSource);
+            this.readOnly = new TransactionTemplate(transactionManager);
+            this.readOnly.setReadOnly(true);
+            this.readWrite = new TransactionTemplate(transactionManager);
+        }
+
+        String read() {
+            return readOnly.execute(status -> jdbcTemplate.queryForObject("SELECT name FROM node", String.class));
+        }
+
+        String write() {
+            return readWrite.execute(status -> jdbcTemplate.queryForObject("SELECT name FROM node", String.class));
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.task.modelTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.task.model.Comment;
+import com.example.task.model.Task;
+import com.example.task.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.AbstractList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class EntityEqualityTest {
+
+    @Test
+    public void testEqualityById_IgnoresCollections() {
+        User first = User.builder().id(1L).username("user").tasks(untouchable()).comments(untouchable()).build();
+        User second = User.builder().id(1L).username("renamed").assignedTasks(untouchable()).build();
+
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+        assertNotEquals(first, User.builder().id(2L).username("user").build());
+    }
+
+    @Test
+    public void testTransientEntitiesEqualOnlyToThemselves() {
+        Task first = Task.builder().title("task").build();
+        Task second = Task.builder().title("task").build();
+
+        assertNotEquals(first, second);
+        assertEquals(first, first);
+    }
+
+    @Test
+    public void testHashCodeStableAfterPersist() {
+        Comment comment = Comment.builder().content("comment").build();
+        Set<Comment> comments = new HashSet<>(Set.of(comment));
+
+        comment.setId(10L);
+
+        assertTrue(comments.contains(comment));
+    }
+
+    @Test
+    public void testToStringSkipsAssociationsAndPassword() {
+        User user = User.builder().id(1L).username("user").password("hash")
+                .tasks(untouchable()).assignedTasks(untouchable()).comments(untouchable()).build();
+        Task task = Task.builder().id(1L).title("task").author(user).assignee(user).comments(untouchable()).build();
+        Comment comment = Comment.builder().id(1L).task(task).author(user).content("comment").build();
+
+        assertFalse(user.toString().contains("hash"));
+        assertTrue(task.toString().contains("task"));
+        assertTrue(comment.toString().contains("comment"));
+    }
+
+    /**
+     * Коллекция, любое чтение которой считается загрузкой и завершает тест ошибкой.
+     */
+    private static <T> List<T> untouchable() {
+        return new AbstractList<>() {
+            @Override
+            public T get(int index) {
+                throw new AssertionError("Коллекция не должна читаться");
+            }
+
+            @Override
+            public int size() {
+                throw new AssertionError("Коллекция не должна читаться");
+            }
+        };
+    }
+}
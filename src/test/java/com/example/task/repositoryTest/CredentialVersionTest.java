@@ -0,0 +1,182 @@
+package com.example.task.repositoryTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.example.task.cache.UserCache;
+import com.example.task.config.JwtRequestFilter;
+import com.example.task.model.User;
+import com.example.task.repository.UserRepository;
+import com.example.task.security.CredentialVersionRegistry;
+import com.example.task.security.CustomUserDetails;
+import com.example.task.security.JwtClaimsCache;
+import com.example.task.security.JwtCodec;
+import com.example.task.service.AuthService;
+import com.example.task.service.PasswordRehashService;
+import com.example.task.service.UserDetailService;
+import com.example.task.service.UserService;
+import com.example.task.util.JwtTokenUtils;
+import com.example.task.util.validator.UserValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Смена пароля и отзыв токенов увеличивают версию учетных данных в базе,
+ * после чего токены, выпущенные раньше, не принимаются фильтром.
+ */
+@DataJpaTest(properties = "spring.flyway.enabled=false")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class CredentialVersionTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private AuthenticationManager authenticationManager;
+
+    private AuthService authService;
+
+    private JwtTokenUtils jwtTokenUtils;
+
+    private JwtRequestFilter jwtRequestFilter;
+
+    private BCryptPasswordEncoder passwordEncoder;
+
+    private User user;
+
+    @BeforeEach
+    public void setUp() {
+        UserService userService = new UserService(userRepository,
+                new UserCache(100, Duration.ofMinutes(10), new SimpleMeterRegistry()));
+        UserDetailService userDetailService = new UserDetailService(userService);
+        CredentialVersionRegistry credentialVersionRegistry = new CredentialVersionRegistry(100, Duration.ofMinutes(5));
+        JwtCodec jwtCodec = new JwtCodec("s3cr3tk3y", "k1", Map.of());
+        jwtTokenUtils = new JwtTokenUtils(jwtCodec, 60_000L);
+        jwtRequestFilter = new JwtRequestFilter(userDetailService,
+                new JwtClaimsCache(100, new SimpleMeterRegistry()), credentialVersionRegistry, jwtCodec);
+        ReflectionTestUtils.setField(jwtRequestFilter, "statelessPrincipal", true);
+
+        passwordEncoder = new BCryptPasswordEncoder(4);
+        authenticationManager = mock(AuthenticationManager.class);
+        authService = new AuthService(authenticationManager, jwtTokenUtils, userDetailService,
+                mock(PasswordRehashService.class), userService, new UserValidator(), passwordEncoder,
+                credentialVersionRegistry);
+
+        user = userRepository.save(User.builder().username("user").password(passwordEncoder.encode("secret1")).build());
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("user", null));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    public void testRevokeTokens_RejectsOldToken() throws Exception {
+        String oldToken = jwtTokenUtils.generateToken(new CustomUserDetails(user));
+        assertNotNull(authenticate(oldToken));
+
+        String newToken = authService.revokeTokens();
+
+        assertEquals(1, userRepository.findById(user.getId()).orElseThrow().getCredentialVersion());
+        assertNull(authenticate(oldToken));
+        assertEquals("user", authenticate(newToken).getName());
+    }
+
+    @Test
+    public void testChangePassword_RejectsOldTokenAlsoWithoutStatelessPrincipal() throws Exception {
+        ReflectionTestUtils.setField(jwtRequestFilter, "statelessPrincipal", false);
+        String oldToken = jwtTokenUtils.generateToken(new CustomUserDetails(user));
+        assertNotNull(authenticate(oldToken));
+
+        String newToken = authService.changePassword("secret1", "secret2");
+
+        User changed = userRepository.findById(user.getId()).orElseThrow();
+        assertEquals(1, changed.getCredentialVersion());
+        assertTrue(passwordEncoder.matches("secret2", changed.getPassword()));
+        assertNull(authenticate(oldToken));
+        assertEquals("user", authenticate(newToken).getName());
+    }
+
+    @Test
+    public void testChangePassword_WrongOldPasswordKeepsTokens() throws Exception {
+        String token = jwtTokenUtils.generateToken(new CustomUserDetails(user));
+        when(authenticationManager.authenticate(any())).thenThrow(new BadCredentialsException("bad"));
+
+        assertThrows(BadCredentialsException.class, () -> authService.changePassword("wrong1", "secret2"));
+
+        assertEquals(0, userRepository.findById(user.getId()).orElseThrow().getCredentialVersion());
+        assertNotNull(authenticate(token));
+    }
+
+    @Test
+    public void testOtherNode_AcceptsNewTokenWhileItsCacheHoldsOlderVersion() throws Exception {
+        UserService otherUserService = new UserService(userRepository,
+                new UserCache(100, Duration.ofMinutes(10), new SimpleMeterRegistry()));
+        JwtRequestFilter otherNode = new JwtRequestFilter(new UserDetailService(otherUserService),
+                new JwtClaimsCache(100, new SimpleMeterRegistry()), new CredentialVersionRegistry(100, Duration.ofMinutes(5)),
+                new JwtCodec("s3cr3tk3y", "k1", Map.of()));
+        String oldToken = jwtTokenUtils.generateToken(new CustomUserDetails(user));
+        assertEquals(0, otherUserService.findByUsername("user").orElseThrow().getCredentialVersion());
+
+        String newToken = authService.revokeTokens();
+
+        for (boolean statelessPrincipal : new boolean[]{true, false}) {
+            ReflectionTestUtils.setField(otherNode, "statelessPrincipal", statelessPrincipal);
+            assertEquals("user", authenticate(otherNode, newToken).getName());
+        }
+        assertNull(authenticate(otherNode, oldToken));
+        assertEquals(1, otherUserService.findByUsername("user").orElseThrow().getCredentialVersion());
+    }
+
+    @Test
+    public void testOtherNode_RejectsOldPasswordWhileItsCacheHoldsOldHash() {
+        UserService otherUserService = new UserService(userRepository,
+                new UserCache(100, Duration.ofMinutes(10), new SimpleMeterRegistry()));
+        DaoAuthenticationProvider otherNode = new DaoAuthenticationProvider(passwordEncoder);
+        otherNode.setUserDetailsService(new UserDetailService(otherUserService));
+        assertTrue(passwordEncoder.matches("secret1", otherUserService.findByUsername("user").orElseThrow().getPassword()));
+
+        authService.changePassword("secret1", "secret2");
+
+        assertThrows(BadCredentialsException.class,
+                () -> otherNode.authenticate(new UsernamePasswordAuthenticationToken("user", "secret1")));
+        assertTrue(otherNode.authenticate(new UsernamePasswordAuthenticationToken("user", "secret2")).isAuthenticated());
+        assertTrue(passwordEncoder.matches("secret2", otherUserService.findByUsername("user").orElseThrow().getPassword()));
+    }
+
+    private Authentication authenticate(String token) throws Exception {
+        return authenticate(jwtRequestFilter, token);
+    }
+
+    private Authentication authenticate(JwtRequestFilter filter, String token) throws Exception {
+        Authentication current = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        Authentication result = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.getContext().setAuthentication(current);
+        return result;
+    }
+}
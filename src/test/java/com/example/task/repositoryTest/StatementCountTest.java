@@ -0,0 +1,367 @@
+package com.example.task.repositoryTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.task.cache.TaskCache;
+import com.example.task.cache.UserCache;
+import com.example.task.model.Comment;
+import com.example.task.model.Task;
+import com.example.task.model.TaskCounter;
+import com.example.task.model.User;
+import com.example.task.model.pojo.TaskBatchResult;
+import com.example.task.model.pojo.TaskFilter;
+import com.example.task.model.pojo.TaskStatusBatchResult;
+import com.example.task.model.pojo.TaskStatusChange;
+import com.example.task.repository.CommentRepository;
+import com.example.task.repository.TaskCounterRepository;
+import com.example.task.repository.TaskRepository;
+import com.example.task.repository.UserRepository;
+import com.example.task.service.CommentService;
+import com.example.task.service.TaskCounterService;
+import com.example.task.service.TaskService;
+import com.example.task.service.UserService;
+import com.example.task.util.validator.TaskStatusTransitions;
+import com.example.task.util.validator.TaskValidator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Количество SQL запросов и загруженных сущностей на вызов сервисов задач и комментариев.
+ * У задач разные исполнители, у каждой задачи комментарии разных пользователей,
+ * поэтому загрузка связей по строкам (N+1) или жадная загрузка связей увеличили бы счетчики.
+ * Сервисы - бины контекста с транзакционными прокси, а тест выполняется без общей транзакции,
+ * как и обычные запросы к сервисам, поэтому каждое изменение должно укладываться ровно в одну транзакцию.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({TaskService.class, CommentService.class, UserService.class, TaskCounterService.class, UserCache.class,
+        TaskCache.class, TaskValidator.class, TaskStatusTransitions.class, StatementCountTest.Metrics.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class StatementCountTest {
+
+    private static final int TASKS = 12;
+
+    private static final int PAGE_SIZE = 5;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TaskCounterRepository taskCounterRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private TaskCache taskCache;
+
+    @Autowired
+    private UserCache userCache;
+
+    private Statistics statistics;
+
+    private User author;
+
+    private Task task;
+
+    @BeforeEach
+    public void setUp() {
+        assertTrue(AopUtils.isAopProxy(taskService) && AopUtils.isAopProxy(commentService));
+
+        author = userRepository.save(User.builder().username("author").password("hash").build());
+        List<User> others = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            others.add(userRepository.save(User.builder().username("user" + i).password("hash").build()));
+        }
+        for (int i = 0; i < TASKS; i++) {
+            Task saved = taskRepository.save(Task.builder()
+                    .title("task " + i)
+                    .description("description")
+                    .status(Task.Status.PENDING)
+                    .priority(Task.Priority.MEDIUM)
+                    .author(author)
+                    .assignee(others.get(i % others.size()))
+                    .build());
+            for (User commenter : others) {
+                commentRepository.save(Comment.builder().task(saved).author(commenter).content("comment").build());
+            }
+            task = saved;
+        }
+
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("author", null));
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+        // кэши - бины общего для тестов контекста, а id удаленных строк не переиспользуются
+        userRepository.findAll().forEach(userCache::invalidate);
+        taskCache.invalidateAll(taskRepository.findAll().stream().map(Task::getId).toList());
+        commentRepository.deleteAllInBatch();
+        taskCounterRepository.deleteAllInBatch();
+        taskRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    public void testAuthorPage_UserLookupSelectAndCount() {
+        taskService.getTasks(TaskFilter.builder().authorId(author.getId()).build(), 0, PAGE_SIZE, null, true);
+
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testAuthorSlice_SkipsCount() {
+        taskService.getTasks(TaskFilter.builder().authorId(author.getId()).build(), 0, PAGE_SIZE, null, false);
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testAuthorKeysetPage() {
+        taskService.getTasksAfter(TaskFilter.builder().authorId(author.getId()).build(), "", PAGE_SIZE);
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testAllTasks_SingleStatement() {
+        assertEquals(TASKS, taskService.getAllTasks().size());
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testTaskView_SingleStatementThenCached() {
+        taskService.getTaskView(task.getId());
+        taskService.getTaskView(task.getId());
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testCommentsByTask_ExistenceCheckAndSelect() {
+        assertEquals(4, commentService.getCommentsByTask(task.getId()).size());
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testTaskETag_SingleStatementWithoutEntities() {
+        taskService.getTaskETag(task.getId());
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    public void testCommentsETag_SingleStatementWithoutEntities() {
+        assertEquals("\"c" + task.getId() + "-4-" + commentRepository.findAll().stream()
+                        .filter(comment -> comment.getTask().getId().equals(task.getId()))
+                        .mapToLong(Comment::getId).max().orElseThrow() + "\"",
+                commentService.getCommentsETag(task.getId()));
+        statistics.clear();
+
+        commentService.getCommentsETag(task.getId());
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    public void testCreateTask_OneStatementPerStep() {
+        taskService.createTask(Map.of("title", "new task", "description", "description",
+                "status", "PENDING", "priority", "HIGH", "assignee", "user0"));
+
+        // автор, исполнитель, INSERT и upsert счетчиков; id берется из уже выделенного блока последовательности
+        assertEquals(4, statistics.getPrepareStatementCount());
+        assertEquals(2, statistics.getEntityLoadCount());
+        assertEquals(1, statistics.getTransactionCount());
+    }
+
+    @Test
+    public void testUpdateTask_LoadsTaskWithAssigneeOnly() {
+        taskService.updateTask(task.getId(), Map.of("title", "new title", "description", "new description"), null);
+
+        // задача с исполнителем, текущий пользователь и UPDATE;
+        // статус, приоритет и исполнитель не менялись, поэтому счетчики не обновляются
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(3, statistics.getEntityLoadCount());
+        assertEquals(0, statistics.getCollectionFetchCount());
+        assertEquals(1, statistics.getTransactionCount());
+    }
+
+    @Test
+    public void testUpdateTask_NewAssigneeResolvedOnce() {
+        taskService.updateTask(task.getId(),
+                Map.of("title", "new title", "description", "new description", "assignee", "user0"), null);
+
+        // задача с исполнителем, текущий пользователь, новый исполнитель, UPDATE и upsert счетчиков
+        assertEquals(5, statistics.getPrepareStatementCount());
+        assertEquals(4, statistics.getEntityLoadCount());
+        assertEquals(1, statistics.getTransactionCount());
+    }
+
+    @Test
+    public void testChangeStatus_ConditionalUpdateWithoutLoadingTheTask() {
+        String assignee = userRepository.findById(task.getAssignee().getId()).orElseThrow().getUsername();
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(assignee, null));
+        statistics.clear();
+
+        taskService.changeStatus(task.getId(), Map.of("status", "IN_PROGRESS"));
+
+        // поля задачи, текущий пользователь, условный UPDATE и один upsert счетчиков
+        assertEquals(0, statistics.getCollectionFetchCount());
+        assertEquals(4, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getEntityLoadCount());
+        assertEquals(1, statistics.getTransactionCount());
+        assertEquals(Task.Status.IN_PROGRESS, taskRepository.findById(task.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    public void testDeleteTask_DeletesWithoutLoadingTaskOrComments() {
+        taskService.deleteTask(task.getId());
+
+        // поля задачи с блокировкой, текущий пользователь, DELETE комментариев, DELETE задачи и upsert счетчиков
+        assertEquals(5, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getEntityLoadCount());
+        assertEquals(0, statistics.getCollectionFetchCount());
+        assertEquals(1, statistics.getTransactionCount());
+        assertFalse(taskRepository.existsById(task.getId()));
+        assertEquals((TASKS - 1) * 4, commentRepository.count());
+    }
+
+    @Test
+    public void testSaveAll_InsertsInBatchesWithPooledIds() {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            tasks.add(Task.builder()
+                    .title("batch " + i)
+                    .description("description")
+                    .status(Task.Status.PENDING)
+                    .priority(Task.Priority.LOW)
+                    .author(author)
+                    .build());
+        }
+
+        taskRepository.saveAll(tasks);
+
+        // с IDENTITY каждая строка была бы отдельным INSERT; здесь nextval на каждые 50 задач и один пакетный INSERT
+        assertEquals(120, statistics.getEntityInsertCount());
+        assertTrue(statistics.getPrepareStatementCount() <= 4, () -> "statements: " + statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testCreateTasks_ResolvesAssigneesOnceAndInsertsInBatches() {
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            items.add(Map.of("title", "batch " + i, "description", "description", "status", "PENDING",
+                    "priority", i % 2 == 0 ? "LOW" : "HIGH", "assignee", "user" + (i % 4)));
+        }
+
+        TaskBatchResult result = taskService.createTasks(items, TaskBatchResult.Mode.ALL_OR_NOTHING);
+
+        // автор, один запрос всех исполнителей, nextval на каждые 50 задач, пакетный INSERT и один upsert счетчиков
+        assertEquals(120, result.created());
+        assertEquals(120, statistics.getEntityInsertCount());
+        assertTrue(statistics.getPrepareStatementCount() <= 7, () -> "statements: " + statistics.getPrepareStatementCount());
+        assertEquals(1 + 4, statistics.getEntityLoadCount());
+        assertEquals(1, statistics.getTransactionCount());
+        assertEquals(120, taskCounterRepository.findAll().stream()
+                .filter(counter -> counter.getScope() == TaskCounter.Scope.AUTHOR && counter.getUserId().equals(author.getId()))
+                .mapToLong(TaskCounter::getTaskCount)
+                .sum());
+    }
+
+    @Test
+    public void testChangeStatuses_SetBasedRegardlessOfTaskCount() {
+        List<Long> ids = new ArrayList<>(taskRepository.findAll().stream().map(Task::getId).toList());
+        ids.add(-1L);
+        statistics.clear();
+
+        TaskStatusBatchResult result = taskService.changeStatuses(new TaskStatusChange(ids, "IN_PROGRESS"));
+
+        // текущий пользователь, выборка задач с блокировкой, один UPDATE и один upsert счетчиков
+        assertEquals(TASKS, result.updated());
+        assertEquals(TaskStatusBatchResult.Outcome.NOT_FOUND, result.items().get(TASKS).outcome());
+        assertEquals(4, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getEntityLoadCount());
+        assertEquals(1, statistics.getTransactionCount());
+        assertTrue(taskRepository.findAll().stream().allMatch(saved -> saved.getStatus() == Task.Status.IN_PROGRESS
+                && saved.getUpdatedAt() != null));
+    }
+
+    @Test
+    public void testAddComment_OneStatementPerStep() {
+        commentService.addComment(task.getId(), Map.of("content", "comment"));
+
+        // задача, текущий пользователь и INSERT; id берется из уже выделенного блока последовательности
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(2, statistics.getEntityLoadCount());
+        assertEquals(1, statistics.getTransactionCount());
+    }
+
+    @Test
+    public void testDeleteComment_LoadsOnlyTheComment() {
+        Comment comment = commentRepository.findAll().get(0);
+        String commenter = userRepository.findById(comment.getAuthor().getId()).orElseThrow().getUsername();
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(commenter, null));
+        statistics.clear();
+
+        commentService.deleteComment(comment.getId());
+
+        // комментарий, текущий пользователь и DELETE
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(2, statistics.getEntityLoadCount());
+        assertEquals(1, statistics.getTransactionCount());
+    }
+
+    /**
+     * Реестр метрик для сервисов и кэшей: автоконфигурация метрик в срез JPA не входит.
+     */
+    @TestConfiguration
+    static class Metrics {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
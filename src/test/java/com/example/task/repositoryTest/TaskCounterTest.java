@@ -0,0 +1,168 @@
+package com.example.task.repositoryTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.task.cache.UserCache;
+import com.example.task.model.Task;
+import com.example.task.model.TaskCounter;
+import com.example.task.model.User;
+import com.example.task.model.pojo.TaskDimensions;
+import com.example.task.model.pojo.TaskStats;
+import com.example.task.repository.TaskCounterRepository;
+import com.example.task.repository.TaskRepository;
+import com.example.task.repository.UserRepository;
+import com.example.task.service.TaskCounterService;
+import com.example.task.service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Приращения счетчиков задач через insert ... on conflict и их сверка с таблицей задач.
+ * В H2 нет advisory-блокировок, поэтому pg_try_advisory_xact_lock заменяется функцией
+ * {@link #tryAdvisoryXactLock(long)}, для которой блокировку может держать «другой узел».
+ */
+@DataJpaTest(properties = "spring.flyway.enabled=false")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class TaskCounterTest {
+
+    @Autowired
+    private TaskCounterRepository taskCounterRepository;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private static volatile Long lockedByOtherNode;
+
+    private TaskCounterService taskCounterService;
+
+    private User author;
+
+    private User assignee;
+
+    @BeforeEach
+    public void setUp() {
+        jdbcTemplate.execute("CREATE ALIAS IF NOT EXISTS PG_TRY_ADVISORY_XACT_LOCK FOR '"
+                + TaskCounterTest.class.getName() + ".tryAdvisoryXactLock'");
+        taskCounterService = new TaskCounterService(taskCounterRepository,
+                new UserService(userRepository, new UserCache(100, Duration.ofMinutes(10), new SimpleMeterRegistry())));
+        author = userRepository.save(User.builder().username("author").password("hash").build());
+        assignee = userRepository.save(User.builder().username("assignee").password("hash").build());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        lockedByOtherNode = null;
+        taskCounterRepository.deleteAllInBatch();
+        taskRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    public void testMove_CountsAuthorAndAssignee() {
+        TaskDimensions pending = new TaskDimensions(author.getId(), assignee.getId(), Task.Status.PENDING, Task.Priority.HIGH);
+        TaskDimensions inProgress = new TaskDimensions(author.getId(), assignee.getId(), Task.Status.IN_PROGRESS, Task.Priority.HIGH);
+
+        taskCounterService.move(null, pending);
+        taskCounterService.move(null, pending);
+        taskCounterService.move(pending, inProgress);
+
+        TaskStats authorStats = taskCounterService.getAuthorStats(author.getId());
+        assertEquals(1L, authorStats.counts().get(Task.Status.PENDING).get(Task.Priority.HIGH));
+        assertEquals(1L, authorStats.counts().get(Task.Status.IN_PROGRESS).get(Task.Priority.HIGH));
+        assertEquals(0L, authorStats.counts().get(Task.Status.COMPLETED).get(Task.Priority.LOW));
+        assertEquals(2, authorStats.total());
+        assertEquals(2, taskCounterService.getAssigneeStats(assignee.getId()).total());
+    }
+
+    @Test
+    public void testMove_UnchangedDimensionsIssueNoUpdate() {
+        TaskDimensions task = new TaskDimensions(author.getId(), null, Task.Status.PENDING, Task.Priority.LOW);
+        taskCounterService.move(null, task);
+
+        taskCounterService.move(task, task);
+        taskCounterService.move(task, null);
+
+        assertEquals(0, taskCounterService.getAuthorStats(author.getId()).total());
+        assertEquals(0, taskCounterService.getAssigneeStats(author.getId()).total());
+    }
+
+    @Test
+    public void testMoveAll_ManyCountersAppliedInSeveralStatements() {
+        List<TaskDimensions> created = new ArrayList<>();
+        List<TaskDimensions> completed = new ArrayList<>();
+        for (long i = 0; i < 1500; i++) {
+            created.add(new TaskDimensions(author.getId(), 1_000_000 + i, Task.Status.PENDING, Task.Priority.LOW));
+            completed.add(new TaskDimensions(author.getId(), 1_000_000 + i, Task.Status.COMPLETED, Task.Priority.LOW));
+        }
+        taskCounterService.countCreated(created);
+
+        // по два счетчика исполнителя на задачу - больше строк, чем помещается в один INSERT
+        taskCounterService.moveAll(created, completed);
+
+        TaskStats authorStats = taskCounterService.getAuthorStats(author.getId());
+        assertEquals(0L, authorStats.counts().get(Task.Status.PENDING).get(Task.Priority.LOW));
+        assertEquals(1500L, authorStats.counts().get(Task.Status.COMPLETED).get(Task.Priority.LOW));
+        assertEquals(2 + 2 * 1500, taskCounterRepository.count());
+    }
+
+    @Test
+    public void testReconcile_FixesCountersChangedBehindTheService() {
+        for (int i = 0; i < 3; i++) {
+            taskRepository.save(Task.builder()
+                    .title("task " + i)
+                    .description("description")
+                    .status(Task.Status.PENDING)
+                    .priority(Task.Priority.MEDIUM)
+                    .author(author)
+                    .assignee(i == 0 ? assignee : null)
+                    .build());
+        }
+        taskCounterService.move(null, new TaskDimensions(author.getId(), null, Task.Status.COMPLETED, Task.Priority.LOW));
+
+        Map<TaskCounter.Key, Long> drift = taskCounterService.reconcile().orElseThrow();
+
+        assertEquals(Map.of(
+                new TaskCounter.Key(TaskCounter.Scope.AUTHOR, author.getId(), Task.Status.PENDING, Task.Priority.MEDIUM), 3L,
+                new TaskCounter.Key(TaskCounter.Scope.ASSIGNEE, assignee.getId(), Task.Status.PENDING, Task.Priority.MEDIUM), 1L,
+                new TaskCounter.Key(TaskCounter.Scope.AUTHOR, author.getId(), Task.Status.COMPLETED, Task.Priority.LOW), -1L),
+                drift);
+        assertTrue(taskCounterService.findDrift().isEmpty());
+        assertEquals(3, taskCounterService.getAuthorStats(author.getId()).total());
+        assertEquals(1, taskCounterService.getAssigneeStats(assignee.getId()).total());
+    }
+
+    @Test
+    public void testReconcile_SkippedWhileAnotherNodeHoldsTheLock() {
+        taskCounterService.move(null, new TaskDimensions(author.getId(), null, Task.Status.COMPLETED, Task.Priority.LOW));
+        lockedByOtherNode = TaskCounterRepository.RECONCILE_LOCK_KEY;
+
+        assertTrue(taskCounterService.reconcile().isEmpty());
+
+        assertEquals(1, taskCounterService.getAuthorStats(author.getId()).total());
+        lockedByOtherNode = null;
+        assertEquals(1, taskCounterService.reconcile().orElseThrow().size());
+        assertEquals(0, taskCounterService.getAuthorStats(author.getId()).total());
+    }
+
+    public static boolean tryAdvisoryXactLock(long key) {
+        return !Long.valueOf(key).equals(lockedByOtherNode);
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.task.repositoryTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Проверяет, что на заполненной базе планировщик PostgreSQL выбирает индексы из миграций V2, V4 и V9
+ * для запросов, которые строит {@link com.example.task.repository.TaskFilterRepositoryImpl}.
+ * Требует Docker; без него тест пропускается.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+public class TaskIndexPlanTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static Connection connection;
+
+    @BeforeAll
+    public static void setUp() throws SQLException {
+        Flyway.configure()
+                .dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())
+                .load()
+                .migrate();
+
+        connection = DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO users (username, password) "
+                    + "SELECT 'user' || i, 'hash' FROM generate_series(1, 1000) i");
+            // id пользователей идут с шагом последовательности (V6), поэтому автор и исполнитель берутся из массива id
+            statement.execute("WITH u AS (SELECT array_agg(id ORDER BY id) ids FROM users) "
+                    + "INSERT INTO tasks (title, description, status, priority, author_id, assignee_id, created_at, "
+                    + "updated_at) "
+                    + "SELECT 'task ' || i, 'description', "
+                    + "(ARRAY['PENDING', 'IN_PROGRESS', 'COMPLETED'])[1 + i % 3], "
+                    + "(ARRAY['HIGH', 'MEDIUM', 'LOW'])[1 + (i / 3) % 3], "
+                    + "u.ids[1 + (i * 7919) % 1000], "
+                    + "CASE WHEN i % 4 = 0 THEN NULL ELSE u.ids[1 + (i::bigint * 104729) % 1000] END, "
+                    + "TIMESTAMP '2024-01-01' + (i % 100000) * INTERVAL '1 minute', "
+                    + "CASE WHEN i % 2 = 0 THEN NULL ELSE TIMESTAMP '2024-06-01' + (i * 31 % 100000) * INTERVAL '1 minute' END "
+                    + "FROM u, generate_series(1, 200000) i");
+            statement.execute("ANALYZE users");
+            statement.execute("ANALYZE tasks");
+        }
+    }
+
+    @AfterAll
+    public static void tearDown() throws SQLException {
+        if (connection != null) {
+            connection.close();
+        }
+    }
+
+    @Test
+    public void testAuthorListingUsesAuthorIndex() throws SQLException {
+        String plan = explain("SELECT * FROM tasks t WHERE t.author_id = 42 "
+                + "ORDER BY t.created_at, t.id FETCH FIRST 11 ROWS ONLY");
+
+        assertTrue(plan.contains("idx_tasks_author_created"), plan);
+        assertFalse(plan.contains("Seq Scan"), plan);
+    }
+
+    @Test
+    public void testAuthorListingByStatusUsesAuthorStatusIndex() throws SQLException {
+        String plan = explain("SELECT * FROM tasks t WHERE t.author_id = 42 AND t.status = 'PENDING' "
+                + "ORDER BY t.created_at, t.id FETCH FIRST 11 ROWS ONLY");
+
+        assertTrue(plan.contains("idx_tasks_author_status_created"), plan);
+    }
+
+    @Test
+    public void testAssigneeListingUsesPartialIndex() throws SQLException {
+        String plan = explain("SELECT * FROM tasks t WHERE t.assignee_id = 42 "
+                + "ORDER BY t.created_at, t.id FETCH FIRST 11 ROWS ONLY");
+
+        assertTrue(plan.contains("idx_tasks_assignee_created"), plan);
+    }
+
+    @Test
+    public void testAssigneeListingByStatusUsesPartialStatusIndex() throws SQLException {
+        String plan = explain("SELECT * FROM tasks t WHERE t.assignee_id = 42 AND t.status = 'IN_PROGRESS' "
+                + "ORDER BY t.created_at, t.id FETCH FIRST 11 ROWS ONLY");
+
+        assertTrue(plan.contains("idx_tasks_assignee_status_created"), plan);
+    }
+
+    @Test
+    public void testAuthorListingByUpdatedAtUsesAuthorUpdatedIndex() throws SQLException {
+        String plan = explain("SELECT * FROM tasks t WHERE t.author_id = 42 "
+                + "ORDER BY t.updated_at DESC, t.id DESC FETCH FIRST 11 ROWS ONLY");
+
+        assertTrue(plan.contains("idx_tasks_author_updated"), plan);
+        assertFalse(plan.contains("Sort"), plan);
+    }
+
+    @Test
+    public void testAssigneeListingByUpdatedAtUsesPartialUpdatedIndex() throws SQLException {
+        String plan = explain("SELECT * FROM tasks t WHERE t.assignee_id = 42 "
+                + "ORDER BY t.updated_at, t.id FETCH FIRST 11 ROWS ONLY");
+
+        assertTrue(plan.contains("idx_tasks_assignee_updated"), plan);
+        assertFalse(plan.contains("Sort"), plan);
+    }
+
+    @Test
+    public void testKeysetPageUsesAuthorIndex() throws SQLException {
+        String plan = explain("SELECT * FROM tasks t WHERE t.author_id = 42 "
+                + "AND (t.created_at > TIMESTAMP '2024-02-01' "
+                + "OR (t.created_at = TIMESTAMP '2024-02-01' AND t.id > 5000)) "
+                + "ORDER BY t.created_at, t.id FETCH FIRST 11 ROWS ONLY");
+
+        assertTrue(plan.contains("idx_tasks_author_created"), plan);
+        assertFalse(plan.contains("Sort"), plan);
+    }
+
+    @Test
+    public void testTextSearchUsesGinIndex() throws SQLException {
+        String plan = explain("SELECT t.id FROM tasks t, websearch_to_tsquery('russian', '12345') q "
+                + "WHERE t.search_vector @@ q ORDER BY ts_rank(t.search_vector, q) DESC, t.id FETCH FIRST 11 ROWS ONLY");
+
+        assertTrue(plan.contains("idx_tasks_search"), plan);
+        assertFalse(plan.contains("Seq Scan"), plan);
+    }
+
+    private static String explain(String sql) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("EXPLAIN " + sql)) {
+            while (rows.next()) {
+                plan.append(rows.getString(1)).append('\n');
+            }
+        }
+        return plan.toString();
+    }
+}
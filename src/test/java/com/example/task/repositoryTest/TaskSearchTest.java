@@ -0,0 +1,151 @@
+package com.example.task.repositoryTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.task.model.Task;
+import com.example.task.model.User;
+import com.example.task.model.pojo.TaskFilter;
+import com.example.task.model.pojo.TaskSearchHit;
+import com.example.task.repository.TaskRepository;
+import com.example.task.repository.UserRepository;
+import com.example.task.util.pagination.TaskSearchCursor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Полнотекстовый поиск задач на PostgreSQL: схема создается миграциями Flyway, включая вектор search_vector из V4.
+ * Требует Docker; без него тест пропускается.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class TaskSearchTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    public static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    private static final TaskFilter NO_FILTER = TaskFilter.builder().build();
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User author;
+
+    private User other;
+
+    @BeforeEach
+    public void setUp() {
+        author = userRepository.save(User.builder().username("author").password("hash").build());
+        other = userRepository.save(User.builder().username("other").password("hash").build());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        taskRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    public void testTitleMatchRanksAboveDescriptionMatch() {
+        Task inDescription = save("Созвон с командой", "Подготовить квартальный отчет", author, Task.Status.PENDING);
+        Task inTitle = save("Квартальный отчет", "Собрать цифры", author, Task.Status.PENDING);
+        save("Обновить зависимости", "Проверить сборку", author, Task.Status.PENDING);
+
+        List<Long> ids = ids(taskRepository.searchByText("отчет", NO_FILTER, null, 10));
+
+        assertEquals(List.of(inTitle.getId(), inDescription.getId()), ids);
+    }
+
+    @Test
+    public void testMatchesWordForms() {
+        Task task = save("Отчеты за квартал", "Сверить отчетность", author, Task.Status.PENDING);
+
+        assertEquals(List.of(task.getId()), ids(taskRepository.searchByText("отчет", NO_FILTER, null, 10)));
+    }
+
+    @Test
+    public void testAppliesFilter() {
+        save("Отчет по продажам", "описание", author, Task.Status.PENDING);
+        Task expected = save("Отчет по закупкам", "описание", author, Task.Status.COMPLETED);
+        save("Отчет по складу", "описание", other, Task.Status.COMPLETED);
+
+        TaskFilter filter = TaskFilter.builder().authorId(author.getId()).status(Task.Status.COMPLETED).build();
+
+        assertEquals(List.of(expected.getId()), ids(taskRepository.searchByText("отчет", filter, null, 10)));
+    }
+
+    @Test
+    public void testCursorWalksTiedRanksWithoutGapsOrDuplicates() {
+        Set<Long> saved = new HashSet<>();
+        for (int i = 0; i < 7; i++) {
+            saved.add(save("Отчет", "описание " + i, author, Task.Status.PENDING).getId());
+        }
+        saved.add(save("Отчет отчет отчет", "описание", author, Task.Status.PENDING).getId());
+
+        List<Long> walked = new ArrayList<>();
+        TaskSearchCursor cursor = null;
+        List<TaskSearchHit> hits;
+        do {
+            hits = taskRepository.searchByText("отчет", NO_FILTER, cursor, 3);
+            hits.forEach(hit -> walked.add(hit.task().id()));
+            if (!hits.isEmpty()) {
+                TaskSearchHit last = hits.get(hits.size() - 1);
+                cursor = TaskSearchCursor.decode(new TaskSearchCursor(last.rank(), last.task().id()).encode());
+            }
+        } while (hits.size() == 3);
+
+        assertEquals(saved.size(), walked.size());
+        assertEquals(saved, new HashSet<>(walked));
+    }
+
+    @Test
+    public void testVectorFollowsTitleChange() {
+        Task task = save("Черновик", "описание", author, Task.Status.PENDING);
+        task.setTitle("Презентация");
+        taskRepository.save(task);
+
+        assertTrue(taskRepository.searchByText("черновик", NO_FILTER, null, 10).isEmpty());
+        assertEquals(List.of(task.getId()), ids(taskRepository.searchByText("презентация", NO_FILTER, null, 10)));
+    }
+
+    private Task save(String title, String description, User author, Task.Status status) {
+        return taskRepository.save(Task.builder()
+                .title(title)
+                .description(description)
+                .status(status)
+                .priority(Task.Priority.MEDIUM)
+                .author(author)
+                .build());
+    }
+
+    private static List<Long> ids(List<TaskSearchHit> hits) {
+        return hits.stream().map(hit -> hit.task().id()).toList();
+    }
+}
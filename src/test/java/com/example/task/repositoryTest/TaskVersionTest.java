@@ -0,0 +1,166 @@
+package com.example.task.repositoryTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.task.cache.TaskCache;
+import com.example.task.cache.UserCache;
+import com.example.task.exception.custom.TaskConflictException;
+import com.example.task.exception.custom.TaskPreconditionFailedException;
+import com.example.task.model.Task;
+import com.example.task.model.User;
+import com.example.task.model.pojo.TaskStatusChange;
+import com.example.task.repository.CommentRepository;
+import com.example.task.repository.TaskCounterRepository;
+import com.example.task.repository.TaskRepository;
+import com.example.task.repository.UserRepository;
+import com.example.task.service.TaskCounterService;
+import com.example.task.service.TaskService;
+import com.example.task.service.UserService;
+import com.example.task.util.validator.TaskStatusTransitions;
+import com.example.task.util.validator.TaskValidator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Версия задачи и ETag на её основе: версия растет при любом изменении задачи,
+ * а обновление по устаревшей версии отклоняется.
+ * Тест выполняется без общей транзакции, как и обычные запросы к сервисам.
+ */
+@DataJpaTest(properties = "spring.flyway.enabled=false")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class TaskVersionTest {
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TaskCounterRepository taskCounterRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private MeterRegistry meterRegistry;
+
+    private TaskService taskService;
+
+    private Task task;
+
+    @BeforeEach
+    public void setUp() {
+        UserService userService = new UserService(userRepository,
+                new UserCache(100, Duration.ofMinutes(10), new SimpleMeterRegistry()));
+        TaskValidator taskValidator = new TaskValidator();
+        ReflectionTestUtils.setField(taskValidator, "maxStatusBatchSize", 100);
+        meterRegistry = new SimpleMeterRegistry();
+        taskService = new TaskService(taskRepository, commentRepository, userService, taskValidator,
+                new TaskCache(100, Duration.ofSeconds(30), new SimpleMeterRegistry()),
+                new TaskCounterService(taskCounterRepository, userService), new TaskStatusTransitions(""), meterRegistry);
+
+        User author = userRepository.save(User.builder().username("author").password("hash").build());
+        task = taskRepository.save(Task.builder()
+                .title("task")
+                .description("description")
+                .status(Task.Status.PENDING)
+                .priority(Task.Priority.MEDIUM)
+                .author(author)
+                .build());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("author", null));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+        taskCounterRepository.deleteAllInBatch();
+        taskRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    public void testUpdateTask_ReturnsETagOfNewVersion() {
+        String before = taskService.getTaskETag(task.getId());
+
+        String after = taskService.updateTask(task.getId(), details("new title"), before);
+
+        assertNotEquals(before, after);
+        assertEquals(after, taskService.getTaskETag(task.getId()));
+        assertEquals(task.getVersion() + 1, taskRepository.findVersionById(task.getId()).orElseThrow());
+    }
+
+    @Test
+    public void testUpdateTask_StaleIfMatchRejected() {
+        String stale = taskService.getTaskETag(task.getId());
+        taskService.updateTask(task.getId(), details("first"), null);
+
+        assertThrows(TaskPreconditionFailedException.class,
+                () -> taskService.updateTask(task.getId(), details("second"), stale));
+
+        assertEquals("first", taskRepository.findById(task.getId()).orElseThrow().getTitle());
+        assertEquals(1, meterRegistry.get("tasks.conflicts").tag("operation", "update").tag("reason", "if-match")
+                .counter().count());
+    }
+
+    @Test
+    public void testStatusChanges_BumpVersion() {
+        String pending = taskService.getTaskETag(task.getId());
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        transaction.executeWithoutResult(status -> taskService.changeStatus(task.getId(), Map.of("status", "IN_PROGRESS")));
+        String inProgress = taskService.getTaskETag(task.getId());
+        transaction.executeWithoutResult(status -> taskService.changeStatuses(
+                new TaskStatusChange(List.of(task.getId()), "COMPLETED")));
+
+        assertNotEquals(pending, inProgress);
+        assertNotEquals(inProgress, taskService.getTaskETag(task.getId()));
+        assertThrows(TaskPreconditionFailedException.class,
+                () -> taskService.updateTask(task.getId(), details("new title"), inProgress));
+    }
+
+    @Test
+    public void testUpdateTask_ConcurrentUpdateLoses() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        TransactionTemplate concurrent = new TransactionTemplate(transactionManager);
+        concurrent.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        transaction.executeWithoutResult(status -> {
+            // задача прочитана до того, как параллельный запрос зафиксировал свое изменение
+            taskRepository.findWithAssigneeById(task.getId()).orElseThrow();
+            concurrent.executeWithoutResult(other -> taskService.updateTask(task.getId(), details("first"), null));
+
+            assertThrows(TaskConflictException.class,
+                    () -> taskService.updateTask(task.getId(), details("second"), null));
+            status.setRollbackOnly();
+        });
+
+        assertEquals("first", taskRepository.findById(task.getId()).orElseThrow().getTitle());
+        assertEquals(1, meterRegistry.get("tasks.conflicts").tag("operation", "update").tag("reason", "concurrent")
+                .counter().count());
+    }
+
+    private static Map<String, Object> details(String title) {
+        return Map.of("title", title, "description", "description");
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.task.securityTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.task.security.JwtClaimsCache;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.impl.DefaultClaims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class JwtClaimsCacheTest {
+
+    private JwtClaimsCache jwtClaimsCache;
+
+    @BeforeEach
+    public void setUp() {
+        jwtClaimsCache = new JwtClaimsCache(100, new SimpleMeterRegistry());
+    }
+
+    @Test
+    public void testGet_VerifiesTokenOnce() {
+        AtomicInteger verifications = new AtomicInteger();
+        Claims claims = new DefaultClaims().setSubject("user").setExpiration(new Date(System.currentTimeMillis() + 60_000));
+
+        Claims first = jwtClaimsCache.get("token", token -> {
+            verifications.incrementAndGet();
+            return claims;
+        });
+        Claims second = jwtClaimsCache.get("token", token -> {
+            verifications.incrementAndGet();
+            return claims;
+        });
+
+        assertSame(first, second);
+        assertEquals(1, verifications.get());
+        assertEquals(1, jwtClaimsCache.hitCount());
+        assertEquals(1, jwtClaimsCache.missCount());
+    }
+
+    @Test
+    public void testGet_InvalidTokenIsNotCached() {
+        assertThrows(IllegalArgumentException.class, () -> jwtClaimsCache.get("bad", token -> {
+            throw new IllegalArgumentException("Неверная подпись");
+        }));
+
+        Claims claims = new DefaultClaims().setSubject("user");
+        assertSame(claims, jwtClaimsCache.get("bad", token -> claims));
+    }
+
+    @Test
+    public void testGet_ExpiredEntryIsEvicted() {
+        AtomicInteger verifications = new AtomicInteger();
+        Claims expired = new DefaultClaims().setSubject("user").setExpiration(new Date(System.currentTimeMillis() - 1000));
+
+        jwtClaimsCache.get("token", token -> {
+            verifications.incrementAndGet();
+            return expired;
+        });
+        jwtClaimsCache.get("token", token -> {
+            verifications.incrementAndGet();
+            return expired;
+        });
+
+        assertEquals(2, verifications.get());
+    }
+}
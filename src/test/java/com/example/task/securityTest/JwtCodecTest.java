@@ -0,0 +1,62 @@
+package com.example.task.securityTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.task.security.JwtCodec;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SignatureException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.Map;
+
+public class JwtCodecTest {
+
+    private static final Date NOW = new Date();
+
+    private static final Date EXPIRATION = new Date(NOW.getTime() + 60_000);
+
+    @Test
+    public void testEncodeDecode_RoundTrip() {
+        JwtCodec jwtCodec = new JwtCodec("s3cr3tk3y", "k1", Map.of());
+
+        String token = jwtCodec.encode(Map.of("uid", 1L), "user", NOW, EXPIRATION);
+        Claims claims = jwtCodec.decode(token);
+
+        assertEquals("user", claims.getSubject());
+        assertEquals(1L, claims.get("uid", Long.class));
+        assertEquals("k1", Jwts.parser().setSigningKey("s3cr3tk3y").parseClaimsJws(token).getHeader().getKeyId());
+    }
+
+    @Test
+    public void testDecode_LegacyTokenWithoutKeyId() {
+        JwtCodec jwtCodec = new JwtCodec("s3cr3tk3y", "k1", Map.of());
+        String legacyToken = Jwts.builder().setSubject("user").setExpiration(EXPIRATION)
+                .signWith(SignatureAlgorithm.HS256, "s3cr3tk3y").compact();
+
+        assertEquals("user", jwtCodec.decode(legacyToken).getSubject());
+    }
+
+    @Test
+    public void testDecode_RotatedKey() {
+        JwtCodec previous = new JwtCodec("b2xkc2VjcmV0", "k1", Map.of());
+        JwtCodec current = new JwtCodec("bmV3c2VjcmV0", "k2", Map.of("k1", "b2xkc2VjcmV0"));
+
+        String oldToken = previous.encode(Map.of(), "user", NOW, EXPIRATION);
+
+        assertEquals("user", current.decode(oldToken).getSubject());
+        assertThrows(SignatureException.class, () -> previous.decode(current.encode(Map.of(), "user", NOW, EXPIRATION)));
+    }
+
+    @Test
+    public void testDecode_TamperedToken() {
+        JwtCodec jwtCodec = new JwtCodec("s3cr3tk3y", "k1", Map.of());
+        String token = jwtCodec.encode(Map.of(), "user", NOW, EXPIRATION);
+        String forged = jwtCodec.encode(Map.of(), "admin", NOW, EXPIRATION);
+        String tampered = forged.substring(0, forged.lastIndexOf('.')) + token.substring(token.lastIndexOf('.'));
+
+        assertThrows(SignatureException.class, () -> jwtCodec.decode(tampered));
+    }
+}
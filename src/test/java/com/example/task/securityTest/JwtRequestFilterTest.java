@@ -0,0 +1,90 @@
+package com.example.task.securityTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.example.task.config.JwtRequestFilter;
+import com.example.task.model.User;
+import com.example.task.security.CredentialVersionRegistry;
+import com.example.task.security.CustomUserDetails;
+import com.example.task.security.JwtClaimsCache;
+import com.example.task.security.JwtCodec;
+import com.example.task.util.JwtTokenUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Map;
+
+public class JwtRequestFilterTest {
+
+    private static final String SECRET = "s3cr3tk3y";
+
+    private UserDetailsService userDetailsService;
+
+    private JwtRequestFilter jwtRequestFilter;
+
+    private JwtTokenUtils jwtTokenUtils;
+
+    private User user;
+
+    @BeforeEach
+    public void setUp() {
+        SecurityContextHolder.clearContext();
+        userDetailsService = mock(UserDetailsService.class);
+        JwtCodec jwtCodec = new JwtCodec(SECRET, "k1", Map.of());
+        jwtRequestFilter = new JwtRequestFilter(userDetailsService,
+                new JwtClaimsCache(100, new SimpleMeterRegistry()),
+                new CredentialVersionRegistry(100, Duration.ofMinutes(5)),
+                jwtCodec);
+        ReflectionTestUtils.setField(jwtRequestFilter, "statelessPrincipal", true);
+
+        jwtTokenUtils = new JwtTokenUtils(jwtCodec, 60_000L);
+
+        user = User.builder().id(1L).username("user").password("hash").credentialVersion(0).build();
+        when(userDetailsService.loadUserByUsername("user")).thenReturn(new CustomUserDetails(user));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void testStatelessPrincipal_LoadsUserOnlyOnce() throws Exception {
+        String token = jwtTokenUtils.generateToken(new CustomUserDetails(user));
+
+        Authentication first = authenticate(token);
+        Authentication second = authenticate(token);
+
+        assertEquals("user", first.getName());
+        assertEquals("user", second.getName());
+        assertEquals(1L, ((CustomUserDetails) second.getPrincipal()).user().getId());
+        verify(userDetailsService, times(1)).loadUserByUsername("user");
+    }
+
+    @Test
+    public void testStatelessPrincipal_RejectsStaleCredentialVersion() throws Exception {
+        String token = jwtTokenUtils.generateToken(new CustomUserDetails(user));
+        user.setCredentialVersion(1);
+
+        assertNull(authenticate(token));
+    }
+
+    private Authentication authenticate(String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + token);
+        jwtRequestFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
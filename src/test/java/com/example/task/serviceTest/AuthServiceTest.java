@@ -2,7 +2,10 @@ package com.example.task.serviceTest;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
+import com.example.task.model.User;
+import com.example.task.security.CustomUserDetails;
 import com.example.task.service.AuthService;
+import com.example.task.service.PasswordRehashService;
 import com.example.task.util.JwtTokenUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -33,6 +36,9 @@ public class AuthServiceTest {
     @Mock
     private UserDetails userDetails;
 
+    @Mock
+    private PasswordRehashService passwordRehashService;
+
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.openMocks(this);
@@ -90,4 +96,22 @@ public class AuthServiceTest {
         verify(userDetailsService).loadUserByUsername(username);
         verify(jwtTokenUtils, never()).generateToken(any(UserDetails.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testAuthenticateAndGetToken_RequestsRehash() {
+        String username = "user";
+        String password = "password";
+        User user = User.builder().id(1L).username(username).password("$2a$04$hash").build();
+        CustomUserDetails customUserDetails = new CustomUserDetails(user);
+
+        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
+                .thenReturn(mock(Authentication.class));
+        when(userDetailsService.loadUserByUsername(username)).thenReturn(customUserDetails);
+        when(jwtTokenUtils.generateToken(customUserDetails)).thenReturn("jwt-token");
+
+        String result = authService.authenticateAndGetToken(username, password);
+
+        assertEquals("jwt-token", result);
+        verify(passwordRehashService).rehashIfNeeded(user, password);
+    }
+}
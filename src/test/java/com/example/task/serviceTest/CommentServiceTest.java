@@ -3,26 +3,32 @@ package com.example.task.serviceTest;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
+import com.example.task.cache.TaskCache;
 import com.example.task.exception.custom.CommentNotFoundException;
 import com.example.task.exception.custom.TaskNotFoundException;
 import com.example.task.model.Comment;
 import com.example.task.model.Task;
 import com.example.task.model.User;
+import com.example.task.model.pojo.CommentView;
+import com.example.task.model.pojo.CommentsVersion;
 import com.example.task.repository.CommentRepository;
 import com.example.task.repository.TaskRepository;
-import com.example.task.repository.UserRepository;
 import com.example.task.service.CommentService;
 import com.example.task.service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.MockitoAnnotations;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -39,15 +45,16 @@ public class CommentServiceTest {
     @Mock
     private TaskRepository taskRepository;
 
-    @Mock
-    private UserRepository userRepository;
-
     @Mock
     private UserService userService;
 
+    @Spy
+    private TaskCache taskCache = new TaskCache(100, Duration.ofSeconds(30), new SimpleMeterRegistry());
+
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.openMocks(this);
+        SecurityContextHolder.clearContext();
     }
 
     @Test
@@ -63,29 +70,69 @@ public class CommentServiceTest {
         assertEquals("Задача не найдена id " + taskId, thrown.getMessage());
     }
 
+    @Test
+    public void testAddComment_ContentCheckedBeforeQueries() {
+        Map<String, Object> requestData = new HashMap<>();
+        requestData.put("content", "");
+
+        assertThrows(IllegalArgumentException.class, () -> commentService.addComment(1L, requestData));
+
+        verifyNoInteractions(taskRepository, userService, commentRepository);
+    }
+
     @Test
     public void testGetCommentsByTask_Success() {
         Long taskId = 1L;
-        Task task = new Task();
-        List<Comment> comments = List.of(new Comment(), new Comment());
+        List<CommentView> comments = List.of(
+                new CommentView(1L, taskId, 2L, "first", LocalDateTime.now()),
+                new CommentView(2L, taskId, 3L, "second", LocalDateTime.now()));
 
-        when(taskRepository.findById(taskId)).thenReturn(Optional.of(task));
-        when(commentRepository.findByTask(task)).thenReturn(comments);
+        when(taskRepository.existsById(taskId)).thenReturn(true);
+        when(commentRepository.findViewsByTaskId(taskId)).thenReturn(comments);
 
-        List<Comment> result = commentService.getCommentsByTask(taskId);
+        List<CommentView> result = commentService.getCommentsByTask(taskId);
 
         assertEquals(comments, result);
+        verify(taskRepository, never()).findById(any());
+    }
+
+    @Test
+    public void testGetCommentsETag_ChangesWithNewComment() {
+        when(commentRepository.findVersionByTaskId(1L))
+                .thenReturn(Optional.of(new CommentsVersion(2L, 7L)))
+                .thenReturn(Optional.of(new CommentsVersion(3L, 8L)));
+
+        String before = commentService.getCommentsETag(1L);
+        String after = commentService.getCommentsETag(1L);
+
+        assertNotEquals(before, after);
+        verify(commentRepository, never()).findViewsByTaskId(any());
+    }
+
+    @Test
+    public void testGetCommentsETag_TaskWithoutComments() {
+        when(commentRepository.findVersionByTaskId(1L)).thenReturn(Optional.of(new CommentsVersion(0L, null)));
+
+        assertEquals("\"c1-0-0\"", commentService.getCommentsETag(1L));
+    }
+
+    @Test
+    public void testGetCommentsETag_TaskNotFound() {
+        when(commentRepository.findVersionByTaskId(1L)).thenReturn(Optional.empty());
+
+        assertThrows(TaskNotFoundException.class, () -> commentService.getCommentsETag(1L));
     }
 
     @Test
     public void testGetCommentsByTask_TaskNotFound() {
         Long taskId = 1L;
 
-        when(taskRepository.findById(taskId)).thenReturn(Optional.empty());
+        when(taskRepository.existsById(taskId)).thenReturn(false);
 
         TaskNotFoundException thrown = assertThrows(TaskNotFoundException.class, () -> commentService.getCommentsByTask(taskId));
 
         assertEquals("Задача не найдена id " + taskId, thrown.getMessage());
+        verifyNoInteractions(commentRepository);
     }
 
     @Test
@@ -93,6 +140,7 @@ public class CommentServiceTest {
         Long commentId = 1L;
         Comment comment = new Comment();
         comment.setAuthor(new User());
+        comment.setTask(Task.builder().id(1L).build());
 
         Authentication authentication = new UsernamePasswordAuthenticationToken("username", null);
         SecurityContextHolder.getContext().setAuthentication(authentication);
@@ -104,6 +152,7 @@ public class CommentServiceTest {
         commentService.deleteComment(commentId);
 
         verify(commentRepository).delete(comment);
+        verify(taskCache).invalidate(1L);
     }
 
     @Test
@@ -0,0 +1,60 @@
+package com.example.task.serviceTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.example.task.model.User;
+import com.example.task.security.BoundedPasswordEncoder;
+import com.example.task.security.PasswordHashingExecutor;
+import com.example.task.security.TargetCostBCryptPasswordEncoder;
+import com.example.task.service.PasswordRehashService;
+import com.example.task.service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+public class PasswordRehashServiceTest {
+
+    private PasswordHashingExecutor passwordHashingExecutor;
+
+    private UserService userService;
+
+    private PasswordRehashService passwordRehashService;
+
+    @BeforeEach
+    public void setUp() {
+        passwordHashingExecutor = new PasswordHashingExecutor(1, 4, new SimpleMeterRegistry());
+        userService = mock(UserService.class);
+        BoundedPasswordEncoder passwordEncoder = new BoundedPasswordEncoder(new TargetCostBCryptPasswordEncoder(5), passwordHashingExecutor);
+        passwordRehashService = new PasswordRehashService(passwordEncoder, userService);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        passwordHashingExecutor.shutdown();
+    }
+
+    @Test
+    public void testRehashIfNeeded_CostDiffers() {
+        User user = User.builder().id(1L).username("user").password(new BCryptPasswordEncoder(4).encode("password")).build();
+
+        assertTrue(passwordRehashService.rehashIfNeeded(user, "password"));
+
+        ArgumentCaptor<String> newPassword = ArgumentCaptor.forClass(String.class);
+        verify(userService, timeout(5000)).updatePasswordHash(eq(user), newPassword.capture());
+        assertTrue(newPassword.getValue().startsWith("$2a$05$"));
+        assertTrue(new BCryptPasswordEncoder().matches("password", newPassword.getValue()));
+    }
+
+    @Test
+    public void testRehashIfNeeded_CostMatches() {
+        User user = User.builder().id(1L).username("user").password(new BCryptPasswordEncoder(5).encode("password")).build();
+
+        assertFalse(passwordRehashService.rehashIfNeeded(user, "password"));
+
+        verify(userService, never()).updatePasswordHash(any(User.class), anyString());
+    }
+}
@@ -9,6 +9,7 @@ import com.example.task.service.UserService;
 import com.example.task.util.validator.UserValidator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
@@ -51,11 +52,10 @@ public class RegistrationServiceTest {
 
         verify(userValidator).validateUserData(username, password, userService);
 
-        User expectedUser = User.builder()
-                .username(username)
-                .password(encodedPassword)
-                .build();
-        verify(userService).createUser(expectedUser);
+        ArgumentCaptor<User> createdUser = ArgumentCaptor.forClass(User.class);
+        verify(userService).createUser(createdUser.capture());
+        assertEquals(username, createdUser.getValue().getUsername());
+        assertEquals(encodedPassword, createdUser.getValue().getPassword());
     }
 
     @Test
@@ -0,0 +1,71 @@
+package com.example.task.serviceTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.example.task.model.Task;
+import com.example.task.model.pojo.TaskView;
+import com.example.task.service.TaskExportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+public class TaskExportServiceTest {
+
+    private EntityManager entityManager;
+
+    private TypedQuery<TaskView> query;
+
+    private TaskExportService taskExportService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        entityManager = mock(EntityManager.class);
+        query = mock(TypedQuery.class);
+        when(entityManager.createQuery(anyString(), eq(TaskView.class))).thenReturn(query);
+        when(query.setHint(anyString(), any())).thenReturn(query);
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        taskExportService = new TaskExportService(entityManager, objectMapper, 100);
+    }
+
+    @Test
+    public void testExportTasks_WritesOneJsonObjectPerLine() throws Exception {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 10, 0);
+        when(query.getResultStream()).thenReturn(Stream.of(
+                new TaskView(1L, "First", "Description", Task.Status.PENDING, Task.Priority.HIGH, 1L, null, createdAt, null, 0L),
+                new TaskView(2L, "Second", "Description", Task.Status.COMPLETED, Task.Priority.LOW, 1L, 2L, createdAt, null, 0L)));
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        taskExportService.exportTasks(outputStream);
+
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"id\":1,\"title\":\"First\""));
+        assertTrue(lines[1].contains("\"assigneeId\":2"));
+        assertTrue(lines[1].contains("\"createdAt\":\"2024-01-01T10:00:00\""));
+        verify(query).setHint(HibernateHints.HINT_FETCH_SIZE, 100);
+    }
+
+    @Test
+    public void testExportTasks_EmptyTable() throws Exception {
+        when(query.getResultStream()).thenReturn(Stream.empty());
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        taskExportService.exportTasks(outputStream);
+
+        assertEquals(0, outputStream.size());
+    }
+}
@@ -3,28 +3,60 @@ package com.example.task.serviceTest;
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.nio.file.AccessDeniedException;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.Map;
 import java.util.Optional;
 import java.util.List;
+import java.util.Set;
 
+import com.example.task.cache.TaskCache;
+import com.example.task.exception.custom.TaskConflictException;
+import com.example.task.exception.custom.TaskNotFoundException;
+import com.example.task.exception.custom.TaskPreconditionFailedException;
 import com.example.task.model.Task;
 import com.example.task.model.User;
+import com.example.task.model.pojo.CursorPage;
+import com.example.task.model.pojo.TaskBatchResult;
+import com.example.task.model.pojo.TaskDimensions;
+import com.example.task.model.pojo.TaskFilter;
+import com.example.task.model.pojo.TaskSearchHit;
+import com.example.task.model.pojo.TaskStatusBatchResult;
+import com.example.task.model.pojo.TaskStatusChange;
+import com.example.task.model.pojo.TaskStatusRow;
+import com.example.task.model.pojo.TaskView;
+import com.example.task.repository.CommentRepository;
 import com.example.task.repository.TaskRepository;
+import com.example.task.service.TaskCounterService;
 import com.example.task.service.TaskService;
+import com.example.task.util.http.ETags;
 import com.example.task.service.UserService;
+import com.example.task.util.pagination.TaskCursor;
+import com.example.task.util.pagination.TaskSearchCursor;
+import com.example.task.util.pagination.TaskSort;
+import com.example.task.util.validator.TaskStatusTransitions;
 import com.example.task.util.validator.TaskValidator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -36,12 +68,27 @@ public class TaskServiceTest {
     @Mock
     private TaskRepository taskRepository;
 
+    @Mock
+    private CommentRepository commentRepository;
+
     @Mock
     private UserService userService;
 
     @Mock
     private TaskValidator taskValidator;
 
+    @Spy
+    private TaskCache taskCache = new TaskCache(100, Duration.ofSeconds(30), new SimpleMeterRegistry());
+
+    @Mock
+    private TaskCounterService taskCounterService;
+
+    @Spy
+    private TaskStatusTransitions taskStatusTransitions = new TaskStatusTransitions("");
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private TaskService taskService;
 
@@ -61,6 +108,11 @@ public class TaskServiceTest {
         when(authentication.getName()).thenReturn("user"); // Настройка для всех тестов
     }
 
+    @AfterEach
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
     @Test
     public void testCreateTask() {
         Map<String, Object> requestData = Map.of(
@@ -77,6 +129,124 @@ public class TaskServiceTest {
         taskService.createTask(requestData);
 
         verify(taskRepository, times(1)).save(any(Task.class));
+        verify(taskCounterService).move(isNull(), any(TaskDimensions.class));
+        verify(userService, times(1)).findByUsername("assigneeUser");
+    }
+
+    @Test
+    public void testCreateTask_UnknownAssignee() {
+        when(userService.findByUsername("user")).thenReturn(Optional.of(mockUser));
+        when(userService.findByUsername("ghost")).thenReturn(Optional.empty());
+
+        IllegalArgumentException thrown = assertThrows(IllegalArgumentException.class, () -> taskService.createTask(Map.of(
+                "title", "Test Task", "description", "Test Description", "status", "PENDING", "priority", "HIGH",
+                "assignee", "ghost")));
+
+        assertEquals("Неверное имя исполнителя!", thrown.getMessage());
+        verify(taskRepository, never()).save(any());
+    }
+
+    @Test
+    public void testCreateTasks_AllOrNothingCreatesNothingOnError() {
+        List<Map<String, Object>> items = List.of(
+                Map.of("title", "First", "description", "d", "status", "PENDING", "priority", "LOW", "assignee", "assigneeUser"),
+                Map.of("title", "", "description", "d", "status", "PENDING", "priority", "LOW"));
+
+        when(userService.findByUsername("user")).thenReturn(Optional.of(mockUser));
+        when(userService.findAllByUsername(Set.of("assigneeUser"))).thenReturn(Map.of("assigneeUser", mockUser));
+        when(taskValidator.validateTasks(items, Set.of("assigneeUser"))).thenReturn(Map.of(1, "Должен быть заголовок!"));
+
+        TaskBatchResult result = taskService.createTasks(items, TaskBatchResult.Mode.ALL_OR_NOTHING);
+
+        assertEquals(0, result.created());
+        assertEquals(1, result.failed());
+        assertNull(result.items().get(0).id());
+        assertNotNull(result.items().get(0).error());
+        assertEquals("Должен быть заголовок!", result.items().get(1).error());
+        verify(taskRepository, never()).saveAll(any());
+        verify(taskCounterService, never()).countCreated(any());
+    }
+
+    @Test
+    public void testCreateTasks_BestEffortCreatesValidTasks() {
+        List<Map<String, Object>> items = List.of(
+                Map.of("title", "First", "description", "d", "status", "PENDING", "priority", "LOW", "assignee", "assigneeUser"),
+                Map.of("title", "", "description", "d", "status", "PENDING", "priority", "LOW"),
+                Map.of("title", "Third", "description", "d", "status", "COMPLETED", "priority", "HIGH"));
+
+        when(userService.findByUsername("user")).thenReturn(Optional.of(mockUser));
+        when(userService.findAllByUsername(Set.of("assigneeUser"))).thenReturn(Map.of("assigneeUser", mockUser));
+        when(taskValidator.validateTasks(items, Set.of("assigneeUser"))).thenReturn(Map.of(1, "Должен быть заголовок!"));
+
+        TaskBatchResult result = taskService.createTasks(items, TaskBatchResult.Mode.BEST_EFFORT);
+
+        assertEquals(2, result.created());
+        assertEquals(1, result.failed());
+        assertNull(result.items().get(0).error());
+        assertEquals("Должен быть заголовок!", result.items().get(1).error());
+        assertNull(result.items().get(2).error());
+        verify(userService, times(1)).findAllByUsername(any());
+        verify(taskRepository).saveAll(argThat(tasks -> ((java.util.Collection<Task>) tasks).size() == 2));
+        verify(taskCounterService).countCreated(argThat(created -> created.size() == 2));
+    }
+
+    @Test
+    public void testCreateTasks_OversizedBatchRejectedBeforeQueries() {
+        List<Map<String, Object>> items = List.of(Map.of("title", "First", "assignee", "assigneeUser"));
+        doThrow(new IllegalArgumentException("В пакете может быть не больше 0 задач!"))
+                .when(taskValidator).validateBatchSize(items);
+
+        assertThrows(IllegalArgumentException.class, () -> taskService.createTasks(items, TaskBatchResult.Mode.BEST_EFFORT));
+
+        verify(userService, never()).findByUsername(any());
+        verify(userService, never()).findAllByUsername(any());
+        verify(taskRepository, never()).saveAll(any());
+    }
+
+    @Test
+    public void testChangeStatuses_ReportsOutcomePerTask() {
+        User other = User.builder().id(2L).username("other").build();
+        when(mockUser.getId()).thenReturn(1L);
+        when(userService.findByUsername("user")).thenReturn(Optional.of(mockUser));
+        when(taskRepository.lockStatusRows(any())).thenReturn(List.of(
+                new TaskStatusRow(10L, 1L, null, Task.Status.IN_PROGRESS, Task.Priority.LOW),
+                new TaskStatusRow(11L, 2L, 1L, Task.Status.IN_PROGRESS, Task.Priority.HIGH),
+                new TaskStatusRow(12L, 1L, null, Task.Status.COMPLETED, Task.Priority.LOW),
+                new TaskStatusRow(13L, other.getId(), null, Task.Status.IN_PROGRESS, Task.Priority.LOW),
+                new TaskStatusRow(15L, 1L, null, Task.Status.PENDING, Task.Priority.LOW)));
+
+        TaskStatusBatchResult result = taskService.changeStatuses(
+                new TaskStatusChange(List.of(10L, 11L, 12L, 13L, 14L, 15L, 10L), "completed"));
+
+        assertEquals(2, result.updated());
+        assertEquals(List.of(
+                new TaskStatusBatchResult.Item(10L, TaskStatusBatchResult.Outcome.UPDATED),
+                new TaskStatusBatchResult.Item(11L, TaskStatusBatchResult.Outcome.UPDATED),
+                new TaskStatusBatchResult.Item(12L, TaskStatusBatchResult.Outcome.UNCHANGED),
+                new TaskStatusBatchResult.Item(13L, TaskStatusBatchResult.Outcome.FORBIDDEN),
+                new TaskStatusBatchResult.Item(14L, TaskStatusBatchResult.Outcome.NOT_FOUND),
+                new TaskStatusBatchResult.Item(15L, TaskStatusBatchResult.Outcome.NOT_ALLOWED)), result.items());
+        verify(taskRepository).updateStatus(eq(List.of(10L, 11L)), eq(Task.Status.COMPLETED), any());
+        verify(taskCounterService).moveAll(
+                List.of(new TaskDimensions(1L, null, Task.Status.IN_PROGRESS, Task.Priority.LOW),
+                        new TaskDimensions(2L, 1L, Task.Status.IN_PROGRESS, Task.Priority.HIGH)),
+                List.of(new TaskDimensions(1L, null, Task.Status.COMPLETED, Task.Priority.LOW),
+                        new TaskDimensions(2L, 1L, Task.Status.COMPLETED, Task.Priority.HIGH)));
+        verify(taskCache).invalidateAll(List.of(10L, 11L));
+    }
+
+    @Test
+    public void testChangeStatuses_NothingToUpdateSkipsWrites() {
+        when(mockUser.getId()).thenReturn(1L);
+        when(userService.findByUsername("user")).thenReturn(Optional.of(mockUser));
+        when(taskRepository.lockStatusRows(any())).thenReturn(List.of(
+                new TaskStatusRow(10L, 1L, null, Task.Status.COMPLETED, Task.Priority.LOW)));
+
+        TaskStatusBatchResult result = taskService.changeStatuses(new TaskStatusChange(List.of(10L), "COMPLETED"));
+
+        assertEquals(0, result.updated());
+        verify(taskRepository, never()).updateStatus(any(), any(), any());
+        verify(taskCounterService, never()).moveAll(any(), any());
     }
 
     @Test
@@ -86,44 +256,413 @@ public class TaskServiceTest {
                 "status", "COMPLETED"
         );
 
-        when(taskRepository.findById(1L)).thenReturn(Optional.of(mockTask));
+        when(taskRepository.findWithAssigneeById(1L)).thenReturn(Optional.of(mockTask));
         when(userService.findByUsername("user")).thenReturn(Optional.of(mockUser));
         when(mockTask.getAuthor()).thenReturn(mockUser);
         when(mockTask.getAssignee()).thenReturn(mockUser);
+        when(mockTask.getStatus()).thenReturn(Task.Status.IN_PROGRESS);
+        when(taskRepository.saveAndFlush(mockTask)).thenReturn(mockTask);
 
-        taskService.updateTask(1L, taskDetails);
+        taskService.updateTask(1L, taskDetails, null);
 
-        verify(taskRepository, times(1)).save(mockTask);
+        verify(taskRepository, times(1)).saveAndFlush(mockTask);
+    }
+
+    @Test
+    public void testUpdateTask_StatusTransitionNotAllowed() {
+        Task task = Task.builder().id(1L).author(mockUser).status(Task.Status.COMPLETED).priority(Task.Priority.LOW).version(3L).build();
+        when(taskRepository.findWithAssigneeById(1L)).thenReturn(Optional.of(task));
+        when(userService.findByUsername("user")).thenReturn(Optional.of(mockUser));
+
+        assertThrows(TaskConflictException.class,
+                () -> taskService.updateTask(1L, Map.of("title", "Updated Title", "status", "PENDING"), null));
+
+        assertEquals(Task.Status.COMPLETED, task.getStatus());
+        verify(taskRepository, never()).saveAndFlush(any());
+        verify(taskCounterService, never()).move(any(), any());
+    }
+
+    @Test
+    public void testUpdateTask_MatchingIfMatchReturnsNewETag() {
+        Task task = Task.builder().id(1L).author(mockUser).status(Task.Status.PENDING).priority(Task.Priority.LOW).version(3L).build();
+        when(taskRepository.findWithAssigneeById(1L)).thenReturn(Optional.of(task));
+        when(userService.findByUsername("user")).thenReturn(Optional.of(mockUser));
+        when(taskRepository.saveAndFlush(task)).thenAnswer(invocation -> {
+            task.setVersion(4L);
+            return task;
+        });
+
+        String eTag = taskService.updateTask(1L, Map.of("title", "Updated Title"), "W/\"t1-v2\", \"t1-v3\"");
+
+        assertEquals(ETags.forTask(1L, 4L), eTag);
+        assertEquals("Updated Title", task.getTitle());
+    }
+
+    @Test
+    public void testUpdateTask_StaleIfMatchRejectedBeforeWrite() {
+        Task task = Task.builder().id(1L).author(mockUser).status(Task.Status.PENDING).priority(Task.Priority.LOW).version(3L).build();
+        when(taskRepository.findWithAssigneeById(1L)).thenReturn(Optional.of(task));
+        when(userService.findByUsername("user")).thenReturn(Optional.of(mockUser));
+
+        // слабый ETag не совпадает при строгом сравнении, даже если версия та же
+        assertThrows(TaskPreconditionFailedException.class,
+                () -> taskService.updateTask(1L, Map.of("title", "Updated Title"), "\"t1-v2\", W/\"t1-v3\""));
+
+        verify(taskRepository, never()).saveAndFlush(any());
+        verify(taskCounterService, never()).move(any(), any());
+        assertEquals(1, meterRegistry.get("tasks.conflicts").tag("operation", "update").tag("reason", "if-match").counter().count());
+    }
+
+    @Test
+    public void testUpdateTask_ConcurrentWriteWithIfMatchIsPreconditionFailure() {
+        Task task = Task.builder().id(1L).author(mockUser).status(Task.Status.PENDING).priority(Task.Priority.LOW).version(3L).build();
+        when(taskRepository.findWithAssigneeById(1L)).thenReturn(Optional.of(task));
+        when(userService.findByUsername("user")).thenReturn(Optional.of(mockUser));
+        when(taskRepository.saveAndFlush(task)).thenThrow(new ObjectOptimisticLockingFailureException(Task.class, 1L));
+
+        assertThrows(TaskPreconditionFailedException.class,
+                () -> taskService.updateTask(1L, Map.of("title", "Updated Title"), "*"));
+        verify(taskCache, never()).invalidate(any());
+    }
+
+    @Test
+    public void testUpdateTask_ConcurrentWriteWithoutIfMatchIsConflict() {
+        Task task = Task.builder().id(1L).author(mockUser).status(Task.Status.PENDING).priority(Task.Priority.LOW).version(3L).build();
+        when(taskRepository.findWithAssigneeById(1L)).thenReturn(Optional.of(task));
+        when(userService.findByUsername("user")).thenReturn(Optional.of(mockUser));
+        when(taskRepository.saveAndFlush(task)).thenThrow(new ObjectOptimisticLockingFailureException(Task.class, 1L));
+
+        assertThrows(TaskConflictException.class, () -> taskService.updateTask(1L, Map.of("title", "Updated Title"), null));
+        assertEquals(1, meterRegistry.get("tasks.conflicts").tag("operation", "update").tag("reason", "concurrent").counter().count());
     }
 
     @Test
     public void testDeleteTask() {
-        when(taskRepository.findById(1L)).thenReturn(Optional.of(mockTask));
+        when(mockUser.getId()).thenReturn(1L);
+        when(taskRepository.lockStatusRows(List.of(1L))).thenReturn(List.of(
+                new TaskStatusRow(1L, 1L, 2L, Task.Status.PENDING, Task.Priority.LOW)));
         when(userService.findByUsername("user")).thenReturn(Optional.of(mockUser));
-        when(mockTask.getAuthor()).thenReturn(mockUser);
 
         taskService.deleteTask(1L);
 
-        verify(taskRepository, times(1)).delete(mockTask);
+        verify(commentRepository).deleteByTaskId(1L);
+        verify(taskRepository).deleteRowById(1L);
+        verify(taskRepository, never()).findById(any());
+        verify(taskCounterService).move(new TaskDimensions(1L, 2L, Task.Status.PENDING, Task.Priority.LOW), null);
+        verify(taskCache).invalidate(1L);
+    }
+
+    @Test
+    public void testDeleteTask_NotAuthorDeletesNothing() {
+        when(mockUser.getId()).thenReturn(2L);
+        when(taskRepository.lockStatusRows(List.of(1L))).thenReturn(List.of(
+                new TaskStatusRow(1L, 1L, 2L, Task.Status.PENDING, Task.Priority.LOW)));
+        when(userService.findByUsername("user")).thenReturn(Optional.of(mockUser));
+
+        assertThrows(AccessDeniedException.class, () -> taskService.deleteTask(1L));
+
+        verify(commentRepository, never()).deleteByTaskId(any());
+        verify(taskRepository, never()).deleteRowById(any());
+    }
+
+    @Test
+    public void testChangeStatus_ByAssignee() {
+        when(taskRepository.findStatusRowById(1L))
+                .thenReturn(Optional.of(new TaskStatusRow(1L, 2L, 1L, Task.Status.PENDING, Task.Priority.HIGH)));
+        when(userService.findByUsername("user")).thenReturn(Optional.of(User.builder().id(1L).username("user").build()));
+        when(taskRepository.compareAndSetStatus(eq(1L), eq(Task.Status.PENDING), eq(Task.Status.IN_PROGRESS), eq(1L), any()))
+                .thenReturn(1);
+
+        taskService.changeStatus(1L, Map.of("status", "in_progress"));
+
+        verify(taskRepository, never()).findById(any());
+        verify(taskRepository, never()).save(any());
+        verify(taskCounterService).move(
+                new TaskDimensions(2L, 1L, Task.Status.PENDING, Task.Priority.HIGH),
+                new TaskDimensions(2L, 1L, Task.Status.IN_PROGRESS, Task.Priority.HIGH));
+    }
+
+    @Test
+    public void testChangeStatus_UnassignedTaskOfAnotherAuthor() {
+        when(taskRepository.findStatusRowById(1L))
+                .thenReturn(Optional.of(new TaskStatusRow(1L, 2L, null, Task.Status.PENDING, Task.Priority.HIGH)));
+        when(userService.findByUsername("user")).thenReturn(Optional.of(User.builder().id(1L).username("user").build()));
+
+        assertThrows(AccessDeniedException.class, () -> taskService.changeStatus(1L, Map.of("status", "IN_PROGRESS")));
+        verify(taskRepository, never()).compareAndSetStatus(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    public void testChangeStatus_TransitionNotAllowed() {
+        when(taskRepository.findStatusRowById(1L))
+                .thenReturn(Optional.of(new TaskStatusRow(1L, 1L, null, Task.Status.PENDING, Task.Priority.HIGH)));
+        when(userService.findByUsername("user")).thenReturn(Optional.of(User.builder().id(1L).username("user").build()));
+
+        assertThrows(TaskConflictException.class, () -> taskService.changeStatus(1L, Map.of("status", "COMPLETED")));
+        verify(taskRepository, never()).compareAndSetStatus(any(), any(), any(), any(), any());
+        verify(taskCounterService, never()).move(any(), any());
+    }
+
+    @Test
+    public void testChangeStatus_SameStatusChangesNothing() {
+        when(taskRepository.findStatusRowById(1L))
+                .thenReturn(Optional.of(new TaskStatusRow(1L, 1L, null, Task.Status.COMPLETED, Task.Priority.HIGH)));
+        when(userService.findByUsername("user")).thenReturn(Optional.of(User.builder().id(1L).username("user").build()));
+
+        taskService.changeStatus(1L, Map.of("status", "completed"));
+
+        verify(taskRepository, never()).compareAndSetStatus(any(), any(), any(), any(), any());
+        verify(taskCounterService, never()).move(any(), any());
+        verify(taskCache, never()).invalidate(any());
+    }
+
+    @Test
+    public void testChangeStatus_LosesRaceToConcurrentChange() {
+        when(taskRepository.findStatusRowById(1L))
+                .thenReturn(Optional.of(new TaskStatusRow(1L, 2L, 1L, Task.Status.PENDING, Task.Priority.HIGH)));
+        when(userService.findByUsername("user")).thenReturn(Optional.of(User.builder().id(1L).username("user").build()));
+        when(taskRepository.compareAndSetStatus(any(), any(), any(), any(), any())).thenReturn(0);
+
+        assertThrows(TaskConflictException.class, () -> taskService.changeStatus(1L, Map.of("status", "IN_PROGRESS")));
+        verify(taskCounterService, never()).move(any(), any());
+    }
+
+    @Test
+    public void testStatusTransitions_ExtraEdgesFromProperty() {
+        TaskStatusTransitions transitions = new TaskStatusTransitions("completed->in_progress, IN_PROGRESS->PENDING");
+
+        assertTrue(transitions.isAllowed(Task.Status.PENDING, Task.Status.IN_PROGRESS));
+        assertTrue(transitions.isAllowed(Task.Status.COMPLETED, Task.Status.IN_PROGRESS));
+        assertTrue(transitions.isAllowed(Task.Status.IN_PROGRESS, Task.Status.PENDING));
+        assertFalse(transitions.isAllowed(Task.Status.PENDING, Task.Status.COMPLETED));
+        assertThrows(IllegalArgumentException.class, () -> new TaskStatusTransitions("PENDING=>COMPLETED"));
+        assertThrows(IllegalArgumentException.class, () -> new TaskStatusTransitions("PENDING->PENDING"));
     }
 
     @Test
     public void testGetTasksByAuthor() {
+        TaskFilter filter = TaskFilter.builder().authorId(1L).build();
         when(userService.findById(1L)).thenReturn(Optional.of(mockUser));
-        when(taskRepository.findByAuthorId(1L, PageRequest.of(0, 10))).thenReturn(new PageImpl<>(List.of(mockTask)));
+        when(taskRepository.findByFilter(filter, PageRequest.of(0, 10, TaskSort.KEYSET))).thenReturn(new PageImpl<>(List.of(view(1L, LocalDateTime.now()))));
 
-        ResponseEntity<?> response = taskService.getTasksByAuthor(1L, null, null, 0, 10);
+        ResponseEntity<?> response = taskService.getTasks(filter, 0, 10, null, true);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
     }
 
     @Test
     public void testGetTasksByAssignee() {
+        TaskFilter filter = TaskFilter.builder().assigneeId(1L).build();
+        when(userService.findById(1L)).thenReturn(Optional.of(mockUser));
+        when(taskRepository.findByFilter(filter, PageRequest.of(0, 10, TaskSort.KEYSET))).thenReturn(new PageImpl<>(List.of(view(1L, LocalDateTime.now()))));
+
+        ResponseEntity<?> response = taskService.getTasks(filter, 0, 10, null, true);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+    }
+
+    @Test
+    public void testGetTasks_NotFoundMessage() {
+        TaskFilter filter = TaskFilter.builder().assigneeId(1L).status(Task.Status.PENDING).build();
+        when(userService.findById(1L)).thenReturn(Optional.of(mockUser));
+        when(taskRepository.findByFilter(eq(filter), any())).thenReturn(Page.empty());
+
+        ResponseEntity<?> response = taskService.getTasks(filter, 0, 10, null, true);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertEquals("Задач у исполнителя с таким статусом не найдено", response.getBody());
+    }
+
+    @Test
+    public void testGetTasks_SortByUpdatedAtDesc() {
+        TaskFilter filter = TaskFilter.builder().authorId(1L).build();
+        Sort sort = Sort.by(Sort.Direction.DESC, "updatedAt").and(Sort.by(Sort.Direction.DESC, "id"));
+        when(userService.findById(1L)).thenReturn(Optional.of(mockUser));
+        when(taskRepository.findByFilter(filter, PageRequest.of(0, 10, sort))).thenReturn(new PageImpl<>(List.of(view(1L, LocalDateTime.now()))));
+
+        ResponseEntity<?> response = taskService.getTasks(filter, 0, 10, "updatedAt,desc", true);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+    }
+
+    @Test
+    public void testGetTasks_RejectsUnknownSortProperty() {
+        TaskFilter filter = TaskFilter.builder().authorId(1L).build();
+        when(userService.findById(1L)).thenReturn(Optional.of(mockUser));
+
+        assertThrows(IllegalArgumentException.class, () -> taskService.getTasks(filter, 0, 10, "password", true));
+        verifyNoInteractions(taskRepository);
+    }
+
+    @Test
+    public void testGetTaskSlice_SkipsCount() {
+        TaskFilter filter = TaskFilter.builder().authorId(1L).build();
+        when(userService.findById(1L)).thenReturn(Optional.of(mockUser));
+        when(taskRepository.findSliceByFilter(filter, PageRequest.of(0, 10, TaskSort.KEYSET)))
+                .thenReturn(new SliceImpl<>(List.of(view(1L, LocalDateTime.now()))));
+
+        ResponseEntity<?> response = taskService.getTasks(filter, 0, 10, null, false);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(taskRepository, never()).findByFilter(any(), any());
+    }
+
+    @Test
+    public void testGetTasksAfter_ReturnsNextCursor() {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 8, 1, 12, 0);
+        TaskView first = view(1L, createdAt);
+        TaskView second = view(2L, createdAt);
+        TaskView third = view(3L, createdAt.plusMinutes(1));
+        TaskFilter filter = TaskFilter.builder().authorId(1L).build();
         when(userService.findById(1L)).thenReturn(Optional.of(mockUser));
-        when(taskRepository.findByAssigneeId(1L, PageRequest.of(0, 10))).thenReturn(new PageImpl<>(List.of(mockTask)));
+        when(taskRepository.findByFilterAfter(filter, null, 3)).thenReturn(List.of(first, second, third));
 
-        ResponseEntity<?> response = taskService.getTasksByAssignee(1L, null, null, 0, 10);
+        ResponseEntity<?> response = taskService.getTasksAfter(filter, "", 2);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
+        CursorPage<?> page = (CursorPage<?>) response.getBody();
+        assertEquals(List.of(first, second), page.content());
+        assertEquals(new TaskCursor(createdAt, 2L), TaskCursor.decode(page.nextCursor()));
+    }
+
+    @Test
+    public void testGetTasksAfter_LastPage() {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 8, 1, 12, 0);
+        TaskView task = view(5L, createdAt.plusSeconds(1));
+        TaskFilter filter = TaskFilter.builder().assigneeId(1L).status(Task.Status.PENDING).build();
+        TaskCursor cursor = new TaskCursor(createdAt, 4L);
+        when(userService.findById(1L)).thenReturn(Optional.of(mockUser));
+        when(taskRepository.findByFilterAfter(filter, cursor, 11)).thenReturn(List.of(task));
+
+        ResponseEntity<?> response = taskService.getTasksAfter(filter, cursor.encode(), 10);
+
+        CursorPage<?> page = (CursorPage<?>) response.getBody();
+        assertEquals(List.of(task), page.content());
+        assertFalse(page.hasNext());
+    }
+
+    @Test
+    public void testGetTasksAfter_InvalidCursor() {
+        TaskFilter filter = TaskFilter.builder().authorId(1L).build();
+        when(userService.findById(1L)).thenReturn(Optional.of(mockUser));
+
+        assertThrows(IllegalArgumentException.class, () -> taskService.getTasksAfter(filter, "not-a-cursor", 10));
+    }
+
+    @Test
+    public void testSearchTasks_RankedPageWithNextCursor() {
+        TaskView first = view(7L, LocalDateTime.now());
+        TaskView second = view(3L, LocalDateTime.now());
+        TaskView third = view(5L, LocalDateTime.now());
+        TaskFilter filter = TaskFilter.builder().status(Task.Status.PENDING).build();
+        when(taskRepository.searchByText("отчет", filter, null, 3)).thenReturn(List.of(
+                new TaskSearchHit(first, 0.9f), new TaskSearchHit(second, 0.4f), new TaskSearchHit(third, 0.4f)));
+
+        ResponseEntity<?> response = taskService.searchTasks("отчет", filter, null, 2);
+
+        CursorPage<?> page = (CursorPage<?>) response.getBody();
+        assertEquals(List.of(first, second), page.content());
+        assertEquals(new TaskSearchCursor(0.4f, 3L), TaskSearchCursor.decode(page.nextCursor()));
+    }
+
+    @Test
+    public void testSearchTasks_NothingFound() {
+        TaskFilter filter = TaskFilter.builder().build();
+        TaskSearchCursor cursor = new TaskSearchCursor(0.1f, 9L);
+        when(taskRepository.searchByText("отчет", filter, cursor, 11)).thenReturn(List.of());
+
+        ResponseEntity<?> response = taskService.searchTasks("отчет", filter, cursor.encode(), 10);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    @Test
+    public void testSearchTasks_BlankQuery() {
+        assertThrows(IllegalArgumentException.class,
+                () -> taskService.searchTasks(" ", TaskFilter.builder().build(), null, 10));
+        verify(taskRepository, never()).searchByText(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    public void testGetTaskView() {
+        TaskView task = view(1L, LocalDateTime.now());
+        when(taskRepository.findViewById(1L)).thenReturn(Optional.of(task));
+
+        assertEquals(task, taskService.getTaskView(1L));
+        verify(taskRepository, never()).findById(any());
+    }
+
+    @Test
+    public void testGetTaskView_ServedFromCache() {
+        TaskView task = view(1L, LocalDateTime.now());
+        when(taskRepository.findViewById(1L)).thenReturn(Optional.of(task));
+
+        taskService.getTaskView(1L);
+        taskService.getTaskView(1L);
+
+        verify(taskRepository, times(1)).findViewById(1L);
+    }
+
+    @Test
+    public void testUpdateTask_InvalidatesCachedView() {
+        when(taskRepository.findViewById(1L)).thenReturn(Optional.of(view(1L, LocalDateTime.now())));
+        when(taskRepository.findWithAssigneeById(1L)).thenReturn(Optional.of(mockTask));
+        when(userService.findByUsername("user")).thenReturn(Optional.of(mockUser));
+        when(mockTask.getAuthor()).thenReturn(mockUser);
+        when(taskRepository.saveAndFlush(mockTask)).thenReturn(mockTask);
+        taskService.getTaskView(1L);
+
+        taskService.updateTask(1L, Map.of("title", "Updated Title"), null);
+        taskService.getTaskView(1L);
+
+        verify(taskCache).invalidate(1L);
+        verify(taskRepository, times(2)).findViewById(1L);
+    }
+
+    @Test
+    public void testGetTaskView_NotFound() {
+        when(taskRepository.findViewById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(TaskNotFoundException.class, () -> taskService.getTaskView(1L));
+    }
+
+    @Test
+    public void testGetTaskETag_FromVersionWithoutLoadingTask() {
+        when(taskRepository.findVersionById(1L)).thenReturn(Optional.of(7L));
+
+        assertEquals(ETags.forTask(1L, 7L), taskService.getTaskETag(1L));
+        verify(taskRepository, never()).findViewById(any());
+        verify(taskRepository, never()).findById(any());
+    }
+
+    @Test
+    public void testGetTaskETag_FromCachedViewWithoutQuery() {
+        TaskView task = view(1L, LocalDateTime.now());
+        when(taskRepository.findViewById(1L)).thenReturn(Optional.of(task));
+        taskService.getTaskView(1L);
+
+        assertEquals(ETags.forTask(task), taskService.getTaskETag(1L));
+        verify(taskRepository, never()).findVersionById(any());
+    }
+
+    @Test
+    public void testGetTaskETag_ChangesWithVersion() {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 5, 1, 12, 0);
+        TaskView created = view(1L, createdAt);
+        TaskView updated = new TaskView(1L, "title", "description", Task.Status.PENDING, Task.Priority.LOW, 1L, null,
+                createdAt, createdAt, 1L);
+
+        assertNotEquals(ETags.forTask(created), ETags.forTask(updated));
+    }
+
+    @Test
+    public void testGetTaskETag_NotFound() {
+        when(taskRepository.findVersionById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(TaskNotFoundException.class, () -> taskService.getTaskETag(1L));
+    }
+
+    private static TaskView view(Long id, LocalDateTime createdAt) {
+        return new TaskView(id, "title", "description", Task.Status.PENDING, Task.Priority.LOW, 1L, null, createdAt, null, 0L);
     }
-}
\ No newline at end of file
+}
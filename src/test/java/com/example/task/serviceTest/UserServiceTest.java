@@ -3,15 +3,17 @@ package com.example.task.serviceTest;
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
 
+import com.example.task.cache.UserCache;
 import com.example.task.model.User;
 import com.example.task.repository.UserRepository;
 import com.example.task.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import java.time.Duration;
 import java.util.Optional;
 
 
@@ -20,12 +22,12 @@ public class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
-    @InjectMocks
     private UserService userService;
 
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.openMocks(this);
+        userService = new UserService(userRepository, new UserCache(100, Duration.ofMinutes(10), new SimpleMeterRegistry()));
     }
 
     @Test
@@ -97,4 +99,31 @@ public class UserServiceTest {
         assertTrue(result.isPresent());
         assertEquals(user, result.get());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testFindByUsername_CachedAfterFirstLookup() {
+        User user = User.builder().id(1L).username("username").build();
+        when(userRepository.findByUsername("username")).thenReturn(user);
+
+        userService.findByUsername("username");
+        Optional<User> byName = userService.findByUsername("username");
+        Optional<User> byId = userService.findById(1L);
+
+        assertSame(user, byName.get());
+        assertSame(user, byId.get());
+        verify(userRepository, times(1)).findByUsername("username");
+        verify(userRepository, never()).findById(1L);
+    }
+
+    @Test
+    public void testCreateUser_InvalidatesCache() {
+        User user = User.builder().id(1L).username("username").build();
+        when(userRepository.findByUsername("username")).thenReturn(user);
+
+        userService.findByUsername("username");
+        userService.createUser(user);
+        userService.findByUsername("username");
+
+        verify(userRepository, times(2)).findByUsername("username");
+    }
+}